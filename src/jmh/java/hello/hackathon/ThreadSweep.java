@@ -0,0 +1,36 @@
+package hello.hackathon;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+//같은 벤치마크를 스레드 수별로 돌려서 처리량/할당률이 동시성에 따라 어떻게 변하는지 확인
+//./gradlew jmhThreadSweep -PjmhThreadCounts=1,4,16 -PjmhInclude=TokenService
+public class ThreadSweep {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "hello.hackathon";
+        String resultDir = System.getProperty("bench.resultDir", "build/results/jmh");
+        new File(resultDir).mkdirs();
+
+        for (String t : System.getProperty("bench.threads", "1,4,16").split(",")) {
+            int threads = Integer.parseInt(t.trim());
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .addProfiler(GCProfiler.class)
+                    .result(resultDir + "/threads-" + threads + ".json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
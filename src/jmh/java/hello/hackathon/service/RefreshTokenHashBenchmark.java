@@ -0,0 +1,56 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.JwtConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+//리프레시 토큰 해싱 (refresh() 한 번에 최소 두 번 호출됨)
+//legacyHexSha256 은 이전 구현 (getInstance + UTF-8 byte[] + hex String) - 비교용 기준선
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RefreshTokenHashBenchmark {
+    private final TokenHasher tokenHasher = new TokenHasher();
+    private String refreshToken;
+
+    @State(Scope.Thread)
+    public static class Output {
+        final byte[] buffer = new byte[TokenHasher.HASH_LENGTH];
+    }
+
+    @Setup
+    public void setup() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setIssuer(TokenServiceBenchmark.ISSUER);
+        jwtConfig.setSecret(TokenServiceBenchmark.SECRET);
+        jwtConfig.setRefreshTtlSeconds(1209600);
+        JwtKeyRing keyRing = new JwtKeyRing(jwtConfig);
+        keyRing.init();
+        TokenService tokenService = new TokenService(jwtConfig, keyRing, new AuthMetrics(new SimpleMeterRegistry()));
+        tokenService.init();
+        refreshToken = tokenService.createRefresh(1L, "user@example.com", "nickname", TokenServiceBenchmark.FAMILY_ID);
+    }
+
+    @Benchmark
+    public byte[] hash() {
+        return tokenHasher.hash(refreshToken);
+    }
+
+    @Benchmark
+    public byte[] hashInto(Output output) {
+        tokenHasher.hashInto(refreshToken, output.buffer, 0);
+        return output.buffer;
+    }
+
+    @Benchmark
+    public String legacyHexSha256() throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(md.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,79 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.JwtConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+//TokenService 발급/검증 처리량
+//verifyCache=false 는 검증 캐시 없이 매번 서명 검증 + JSON 디코딩
+//parseWithNewParser 는 파서를 매번 새로 만들던 이전 방식 (비교용 기준선)
+//algorithm=ES256 은 키 링의 (임시) P-256 키로 서명, 캐시된 공개키로 검증 -> verifyCache=false 와 같이 보면 HMAC 대비 검증 비용
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TokenServiceBenchmark {
+    static final String ISSUER = "TrioGraphy";
+    static final String SECRET = "31a9bad0f91de7ca8fd3fede3f48c527f74f696300b8b28cc37682f6795fa952";
+    static final UUID FAMILY_ID = UUID.fromString("00000000-0000-4000-8000-000000000001");
+
+    @Param({"true", "false"})
+    public boolean verifyCache;
+
+    @Param({"HS256", "ES256"})
+    public JwtConfig.Algorithm algorithm;
+
+    private TokenService tokenService;
+    private Key verifyKey;
+    private String accessToken;
+
+    @Setup
+    public void setup() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setIssuer(ISSUER);
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setAccessTtlSeconds(900);
+        jwtConfig.setRefreshTtlSeconds(1209600);
+        jwtConfig.setVerifyCacheSize(verifyCache ? 10_000 : 0);
+        jwtConfig.setAlgorithm(algorithm);
+        JwtKeyRing keyRing = new JwtKeyRing(jwtConfig);
+        keyRing.init();
+        tokenService = new TokenService(jwtConfig, keyRing, new AuthMetrics(new SimpleMeterRegistry()));
+        tokenService.init();
+
+        verifyKey = keyRing.isAsymmetric() ? keyRing.signingKey(Instant.now()).publicKey() : keyRing.hmacKey();
+        accessToken = tokenService.createAccess(1L, "user@example.com", "nickname", FAMILY_ID);
+    }
+
+    @Benchmark
+    public String createAccess() {
+        return tokenService.createAccess(1L, "user@example.com", "nickname", FAMILY_ID);
+    }
+
+    @Benchmark
+    public String createRefresh() {
+        return tokenService.createRefresh(1L, "user@example.com", "nickname", FAMILY_ID);
+    }
+
+    @Benchmark
+    public Claims parseAndValidate() {
+        return tokenService.parseAndValidate(accessToken);
+    }
+
+    @Benchmark
+    public Claims parseWithNewParser() {
+        return Jwts.parserBuilder()
+                .setSigningKey(verifyKey)
+                .requireIssuer(ISSUER)
+                .setAllowedClockSkewSeconds(60)
+                .build()
+                .parseClaimsJws(accessToken)
+                .getBody();
+    }
+}
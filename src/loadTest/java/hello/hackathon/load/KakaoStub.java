@@ -0,0 +1,92 @@
+package hello.hackathon.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+//카카오 사용자 정보 API 대신 띄우는 로컬 스텁
+//토큰 "vu-{번호}-{순번}" -> 같은 번호면 같은 카카오 계정 (로그인할 때마다 토큰은 새로 받는 상황을 흉내)
+//응답마다 latency + 0~jitter ms 지연, errorRate 확률로 503
+final class KakaoStub implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    KakaoStub(long latencyMillis, long jitterMillis, double errorRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/v2/user/me", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String userinfoUri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v2/user/me";
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        int status;
+        String body;
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            status = 401;
+            body = "{\"msg\":\"no token\",\"code\":-401}";
+        } else if (random.nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            status = 503;
+            body = "{\"msg\":\"injected\",\"code\":-9798}";
+        } else {
+            String token = authorization.substring(7);
+            int cut = token.lastIndexOf('-');
+            String account = cut > 0 ? token.substring(0, cut) : token;
+            status = 200;
+            body = "{\"id\":" + (account.hashCode() & 0x7fffffff)
+                    + ",\"kakao_account\":{\"email\":\"" + account + "@load.test\""
+                    + ",\"profile\":{\"nickname\":\"" + account + "\"}}}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
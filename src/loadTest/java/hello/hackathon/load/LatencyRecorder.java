@@ -0,0 +1,59 @@
+package hello.hackathon.load;
+
+import java.util.Arrays;
+
+//가상 유저 한 명이 엔드포인트별로 쓰는 기록 (스레드 하나 전용이라 동기화 없음)
+//끝나면 merge로 합치고 정렬해서 분위수 계산 -> 근사 없이 정확한 p50/p99/p999
+final class LatencyRecorder {
+    private final long[][] latencies = new long[LoadTest.Endpoint.values().length][];
+    private final int[] counts = new int[LoadTest.Endpoint.values().length];
+    private final long[] errors = new long[LoadTest.Endpoint.values().length];
+
+    LatencyRecorder() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new long[1024];
+        }
+    }
+
+    void record(LoadTest.Endpoint endpoint, long nanos, boolean ok) {
+        int i = endpoint.ordinal();
+        if (counts[i] == latencies[i].length) {
+            latencies[i] = Arrays.copyOf(latencies[i], counts[i] * 2);
+        }
+        latencies[i][counts[i]++] = nanos;
+        if (!ok) {
+            errors[i]++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < latencies.length; i++) {
+            if (counts[i] + other.counts[i] > latencies[i].length) {
+                latencies[i] = Arrays.copyOf(latencies[i], counts[i] + other.counts[i]);
+            }
+            System.arraycopy(other.latencies[i], 0, latencies[i], counts[i], other.counts[i]);
+            counts[i] += other.counts[i];
+            errors[i] += other.errors[i];
+        }
+    }
+
+    int count(LoadTest.Endpoint endpoint) {
+        return counts[endpoint.ordinal()];
+    }
+
+    long errors(LoadTest.Endpoint endpoint) {
+        return errors[endpoint.ordinal()];
+    }
+
+    //q = 0.5, 0.99, 0.999 ... (기록이 없으면 0)
+    long[] percentilesNanos(LoadTest.Endpoint endpoint, double... qs) {
+        int i = endpoint.ordinal();
+        long[] sorted = Arrays.copyOf(latencies[i], counts[i]);
+        Arrays.sort(sorted);
+        long[] result = new long[qs.length];
+        for (int k = 0; k < qs.length && sorted.length > 0; k++) {
+            result[k] = sorted[Math.max(0, (int) Math.ceil(qs[k] * sorted.length) - 1)];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,319 @@
+package hello.hackathon.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.hackathon.HackathonApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//인증 엔드포인트 부하 테스트 (./gradlew loadTest)
+//인메모리 H2 + 로컬 카카오 스텁으로 앱을 띄우고, 가상 유저 N명이 login/reissue/refresh/logout을 섞어서 호출한다.
+//결과: 엔드포인트별 처리량, p50/p99/p999 지연, 요청당 DB statement 수 (콘솔 + load.reportDir/summary.csv)
+//
+//  ./gradlew loadTest -Pload.users=64 -Pload.durationSeconds=60
+//  ./gradlew loadTest -Pload.stubLatencyMillis=200 -Pload.stubErrorRate=0.05 -Papp.login.mode=reactive
+//
+//설정 (시스템 프로퍼티, 괄호는 기본값)
+//  load.users(32) load.warmupSeconds(5) load.durationSeconds(30) load.thinkMillis(0)
+//  load.mix(login:10,reissue:60,refresh:25,logout:5)  가중치
+//  load.stubLatencyMillis(30) load.stubJitterMillis(20) load.stubErrorRate(0.0)  카카오 스텁 지연/에러(503)
+//  load.probeRounds(50)  DB statement 수를 잴 때 엔드포인트별로 혼자 호출하는 횟수
+//app.* / social.* / spring.* 시스템 프로퍼티는 앱 설정으로 그대로 들어간다.
+public final class LoadTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    enum Endpoint {
+        LOGIN("/auth/kakao/login"),
+        REISSUE("/auth/token/access"),
+        REFRESH("/auth/token/refresh"),
+        LOGOUT("/auth/logout");
+
+        final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 32);
+        long warmupSeconds = Long.getLong("load.warmupSeconds", 5);
+        long durationSeconds = Long.getLong("load.durationSeconds", 30);
+        long thinkMillis = Long.getLong("load.thinkMillis", 0);
+        Mix mix = Mix.parse(System.getProperty("load.mix", "login:10,reissue:60,refresh:25,logout:5"));
+        int probeRounds = Integer.getInteger("load.probeRounds", 50);
+        Path reportDir = Path.of(System.getProperty("load.reportDir", "build/reports/load"));
+
+        try (KakaoStub stub = new KakaoStub(Long.getLong("load.stubLatencyMillis", 30),
+                Long.getLong("load.stubJitterMillis", 20),
+                Double.parseDouble(System.getProperty("load.stubErrorRate", "0.0")));
+             ConfigurableApplicationContext app = startApp(stub.userinfoUri())) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            Statistics statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            String baseUrl = "http://127.0.0.1:" + port;
+
+            List<VirtualUser> virtualUsers = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                virtualUsers.add(new VirtualUser(i, http, baseUrl, thinkMillis));
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(users);
+            try {
+                System.out.printf("warm-up: %d users, %ds%n", users, warmupSeconds);
+                run(pool, virtualUsers, mix, warmupSeconds);
+
+                System.out.printf("measuring: %d users, %ds, mix %s%n", users, durationSeconds, mix);
+                statistics.clear();
+                long started = System.nanoTime();
+                LatencyRecorder total = run(pool, virtualUsers, mix, durationSeconds);
+                double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+                long statementsUnderLoad = statistics.getPrepareStatementCount();
+
+                Map<Endpoint, Double> statementsPerRequest = probeStatements(
+                        new VirtualUser(users, http, baseUrl, 0), statistics, probeRounds);
+                report(total, elapsedSeconds, statementsUnderLoad, statementsPerRequest, stub, reportDir);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startApp(String userinfoUri) {
+        return new SpringApplicationBuilder(HackathonApplication.class)
+                //기본값으로만 넣으므로 -Dapp.login.mode=... 같은 시스템 프로퍼티가 우선
+                .properties(Map.of(
+                        "server.port", "0",
+                        "spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto", "create-drop",
+                        "spring.jpa.properties.hibernate.generate_statistics", "true",
+                        "spring.main.banner-mode", "off",
+                        "logging.level.org.hibernate.SQL", "warn",
+                        "logging.level.org.hibernate.stat", "warn",
+                        "app.rate-limit.enabled", "false", // 가상 유저가 전부 127.0.0.1
+                        "app.auth-events.file-path", "build/reports/load/auth-events.ndjson",
+                        "social.provider.kakao.userinfo-uri", userinfoUri))
+                .run();
+    }
+
+    //모든 가상 유저를 seconds 동안 돌리고 기록을 합친다.
+    private static LatencyRecorder run(ExecutorService pool, List<VirtualUser> virtualUsers, Mix mix, long seconds)
+            throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Future<LatencyRecorder>> futures = new ArrayList<>(virtualUsers.size());
+        for (VirtualUser user : virtualUsers) {
+            futures.add(pool.submit(() -> user.runUntil(deadline, mix)));
+        }
+        LatencyRecorder total = new LatencyRecorder();
+        for (Future<LatencyRecorder> future : futures) {
+            total.merge(future.get());
+        }
+        return total;
+    }
+
+    //부하 중에는 요청이 섞여서 엔드포인트별 statement를 나눌 수 없으므로, 끝난 뒤 한 명이 하나씩 호출하며 잰다.
+    private static Map<Endpoint, Double> probeStatements(VirtualUser user, Statistics statistics, int rounds)
+            throws IOException, InterruptedException {
+        LatencyRecorder scratch = new LatencyRecorder();
+        Map<Endpoint, Double> result = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            long statements = 0;
+            int measured = 0;
+            for (int i = 0; i < rounds; i++) {
+                if (endpoint != Endpoint.LOGIN && !user.loggedIn() && !user.perform(Endpoint.LOGIN, scratch)) {
+                    continue;
+                }
+                long before = statistics.getPrepareStatementCount();
+                if (user.perform(endpoint, scratch)) {
+                    statements += statistics.getPrepareStatementCount() - before;
+                    measured++;
+                }
+            }
+            result.put(endpoint, measured == 0 ? Double.NaN : (double) statements / measured);
+        }
+        return result;
+    }
+
+    private static void report(LatencyRecorder total, double elapsedSeconds, long statementsUnderLoad,
+                               Map<Endpoint, Double> statementsPerRequest, KakaoStub stub, Path reportDir)
+            throws IOException {
+        Files.createDirectories(reportDir);
+        long requests = 0;
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(reportDir.resolve("summary.csv")))) {
+            csv.println("endpoint,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,db_statements_per_request");
+            System.out.printf("%n%-8s %9s %7s %10s %9s %9s %9s %10s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "stmts/req");
+            for (Endpoint endpoint : Endpoint.values()) {
+                int count = total.count(endpoint);
+                requests += count;
+                long[] p = total.percentilesNanos(endpoint, 0.50, 0.99, 0.999);
+                String name = endpoint.name().toLowerCase(Locale.ROOT);
+                double rps = count / elapsedSeconds;
+                double statements = statementsPerRequest.get(endpoint);
+                System.out.printf("%-8s %9d %7d %10.1f %9.2f %9.2f %9.2f %10.2f%n", name, count,
+                        total.errors(endpoint), rps, p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, statements);
+                csv.printf(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.2f%n", name, count,
+                        total.errors(endpoint), rps, p[0] / 1e6, p[1] / 1e6, p[2] / 1e6, statements);
+            }
+        }
+        System.out.printf("%ntotal %.1f req/s, %.2f DB statements/request under load%n",
+                requests / elapsedSeconds, requests == 0 ? 0 : (double) statementsUnderLoad / requests);
+        System.out.printf("kakao stub: %d requests, %d injected errors%n", stub.requests(), stub.injectedErrors());
+        System.out.printf("report: %s%n", reportDir.resolve("summary.csv").toAbsolutePath());
+    }
+
+    //가상 유저 한 명 - 로그인 상태(토큰)를 들고 있고, 한 스레드에서만 돈다.
+    static final class VirtualUser {
+        private final int id;
+        private final HttpClient http;
+        private final String baseUrl;
+        private final long thinkMillis;
+        private int logins;
+        private String accessToken;
+        private String refreshToken;
+
+        VirtualUser(int id, HttpClient http, String baseUrl, long thinkMillis) {
+            this.id = id;
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.thinkMillis = thinkMillis;
+        }
+
+        LatencyRecorder runUntil(long deadline, Mix mix) throws IOException, InterruptedException {
+            LatencyRecorder recorder = new LatencyRecorder();
+            while (System.nanoTime() < deadline) {
+                perform(loggedIn() ? mix.pick() : Endpoint.LOGIN, recorder);
+                if (thinkMillis > 0) {
+                    Thread.sleep(thinkMillis);
+                }
+            }
+            return recorder;
+        }
+
+        boolean loggedIn() {
+            return refreshToken != null;
+        }
+
+        //성공하면 true, 실패한 refresh/logout 뒤에는 다시 로그인부터
+        boolean perform(Endpoint endpoint, LatencyRecorder recorder) throws IOException, InterruptedException {
+            JsonNode body;
+            switch (endpoint) {
+                case LOGIN -> {
+                    //카카오 토큰은 로그인마다 새로 받는 것처럼 (스텁은 같은 계정으로 응답)
+                    body = call(endpoint, json("kakaoAccessToken", "vu-" + id + "-" + logins++), null, recorder);
+                    if (body != null) {
+                        accessToken = body.path("accessToken").asText();
+                        refreshToken = body.path("refreshToken").asText();
+                    }
+                }
+                case REISSUE -> {
+                    body = call(endpoint, json("refreshToken", refreshToken), null, recorder);
+                    if (body != null) {
+                        accessToken = body.path("accessToken").asText();
+                    }
+                }
+                case REFRESH -> {
+                    body = call(endpoint, json("refreshToken", refreshToken), null, recorder);
+                    if (body != null) {
+                        accessToken = body.path("accessToken").asText();
+                        refreshToken = body.path("refreshToken").asText();
+                    } else {
+                        refreshToken = null;
+                    }
+                }
+                case LOGOUT -> {
+                    body = call(endpoint, "{}", "Bearer " + accessToken, recorder);
+                    refreshToken = null;
+                }
+                default -> throw new IllegalArgumentException(endpoint.name());
+            }
+            return body != null;
+        }
+
+        //2xx면 응답 본문, 아니면 null (연결 실패 포함)
+        private JsonNode call(Endpoint endpoint, String json, String authorization, LatencyRecorder recorder)
+                throws InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+            if (authorization != null) {
+                request.header("Authorization", authorization);
+            }
+            long started = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+                boolean ok = response.statusCode() / 100 == 2;
+                recorder.record(endpoint, System.nanoTime() - started, ok);
+                return ok ? MAPPER.readTree(response.body()) : null;
+            } catch (IOException e) {
+                recorder.record(endpoint, System.nanoTime() - started, false);
+                return null;
+            }
+        }
+
+        private static String json(String field, String value) {
+            return MAPPER.createObjectNode().put(field, value).toString();
+        }
+    }
+
+    //엔드포인트 가중치 ("login:10,reissue:60,...")
+    record Mix(Endpoint[] table) {
+        static Mix parse(String spec) {
+            List<Endpoint> table = new ArrayList<>();
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split(":");
+                Endpoint endpoint = Endpoint.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+                for (int i = Integer.parseInt(kv[1].trim()); i > 0; i--) {
+                    table.add(endpoint);
+                }
+            }
+            if (table.isEmpty()) {
+                throw new IllegalArgumentException("empty load.mix: " + spec);
+            }
+            return new Mix(table.toArray(new Endpoint[0]));
+        }
+
+        Endpoint pick() {
+            return table[ThreadLocalRandom.current().nextInt(table.length)];
+        }
+
+        @Override
+        public String toString() {
+            Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : table) {
+                weights.merge(endpoint, 1, Integer::sum);
+            }
+            return weights.toString().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package hello.hackathon.load;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//기동 벤치마크 (./gradlew startupBenchmark)
+//앱을 별도 JVM으로 띄우고, 프로세스 시작부터 첫 로그인(/auth/kakao/login) 200까지의 시간과
+//그 시점의 힙/논힙 사용량(/actuator/prometheus), RSS(/proc/{pid}/status)를 잰다.
+//변형끼리 번갈아 실행해서 디스크 캐시/CPU 상태 차이가 한쪽에만 몰리지 않도록 한다.
+//
+//  default    기본 설정 (ddl-auto: update, 전체 자동 설정)
+//  prod       --spring.profiles.active=prod
+//  prod+cds   prod + AppCDS 아카이브 (bench.aot=true면 + Spring AOT)
+//
+//DB는 H2 파일 하나를 공유 - 측정 전에 한 번 ddl-auto=create로 스키마를 만들어 둔다. (prod는 스키마를 만들지 않음)
+public final class StartupBenchmark {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = System.getProperty("bench.java", Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        Path appJar = Path.of(System.getProperty("bench.appJar"));
+        Path cdsArchive = Path.of(System.getProperty("bench.cdsArchive", "build/cds/app.jsa"));
+        boolean aot = Boolean.getBoolean("bench.aot");
+        int runs = Integer.getInteger("bench.runs", 5);
+        Path workDir = Path.of(System.getProperty("bench.workDir", "build/startup-bench")).toAbsolutePath();
+        Files.createDirectories(workDir);
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("default", List.of());
+        variants.put("prod", List.of());
+        if (Files.exists(cdsArchive)) {
+            List<String> jvm = new ArrayList<>(List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Xlog:cds=off"));
+            if (aot) {
+                jvm.add("-Dspring.aot.enabled=true");
+            }
+            variants.put(aot ? "prod+cds+aot" : "prod+cds", jvm);
+        } else {
+            System.out.println("no CDS archive at " + cdsArchive + " - run ./gradlew cdsArchive first");
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+        try (KakaoStub stub = new KakaoStub(5, 0, 0.0)) {
+            String db = "jdbc:h2:file:" + workDir.resolve("db");
+            //스키마 준비 + 디스크 캐시 워밍 (측정하지 않음)
+            measure(http, java, appJar, List.of(), appArgs(db, stub, "create", null), workDir.resolve("prepare.log"), 0);
+
+            Map<String, List<Sample>> samples = new LinkedHashMap<>();
+            for (int run = 0; run < runs; run++) {
+                for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                    String profile = variant.getKey().startsWith("prod") ? "prod" : null;
+                    Sample sample = measure(http, java, appJar, variant.getValue(),
+                            appArgs(db, stub, profile == null ? "update" : null, profile),
+                            workDir.resolve(variant.getKey() + "-" + run + ".log"), run + 1);
+                    System.out.printf("run %d %-14s %s%n", run + 1, variant.getKey(), sample);
+                    samples.computeIfAbsent(variant.getKey(), k -> new ArrayList<>()).add(sample);
+                }
+            }
+            report(samples, workDir.resolve("startup.csv"));
+        }
+    }
+
+    private static List<String> appArgs(String db, KakaoStub stub, String ddlAuto, String profile) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + db,
+                "--social.provider.kakao.userinfo-uri=" + stub.userinfoUri()));
+        if (ddlAuto != null) {
+            args.add("--spring.jpa.hibernate.ddl-auto=" + ddlAuto);
+        }
+        if (profile != null) {
+            args.add("--spring.profiles.active=" + profile);
+        }
+        return args;
+    }
+
+    //프로세스 시작 -> 로그인 성공까지 10ms 간격으로 계속 시도
+    private static Sample measure(HttpClient http, String java, Path appJar, List<String> jvmArgs, List<String> appArgs,
+                                  Path log, int run) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(appJar.toString());
+        command.addAll(appArgs);
+        command.add("--server.port=" + port);
+
+        String baseUrl = "http://127.0.0.1:" + port;
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/kakao/login"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"kakaoAccessToken\":\"startup-" + run + "-1\"}"))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long deadline = started + STARTUP_TIMEOUT.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("app exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("no successful login within " + STARTUP_TIMEOUT + ", see " + log);
+                }
+                try {
+                    if (http.send(login, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException notYetListening) {
+                    //포트가 아직 안 열림
+                }
+                Thread.sleep(10);
+            }
+            long firstLoginNanos = System.nanoTime() - started;
+            String metrics = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/prometheus")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            return new Sample(firstLoginNanos / 1_000_000,
+                    sumGauge(metrics, "jvm_memory_used_bytes", "area=\"heap\""),
+                    sumGauge(metrics, "jvm_memory_used_bytes", "area=\"nonheap\""),
+                    rssBytes(process.pid()));
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    //Prometheus 텍스트 형식에서 이름 + 태그가 맞는 줄의 값을 더한다.
+    private static long sumGauge(String metrics, String name, String tag) {
+        double sum = 0;
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith(name + "{") && line.contains(tag)) {
+                sum += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+            }
+        }
+        return (long) sum;
+    }
+
+    //리눅스만 (/proc), 그 외에는 -1
+    private static long rssBytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            //프로세스가 이미 끝났거나 /proc 없음
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    //변형별 중앙값 (+ 최솟값)
+    private static void report(Map<String, List<Sample>> samples, Path csvFile) throws IOException {
+        System.out.printf("%n%-14s %14s %14s %10s %10s %10s%n",
+                "variant", "login(ms) p50", "login(ms) min", "heap(MB)", "nonheap(MB)", "rss(MB)");
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(csvFile))) {
+            csv.println("variant,first_login_ms_median,first_login_ms_min,heap_mb_median,nonheap_mb_median,rss_mb_median");
+            for (Map.Entry<String, List<Sample>> entry : samples.entrySet()) {
+                List<Sample> list = entry.getValue();
+                long login = median(list.stream().mapToLong(Sample::firstLoginMillis).toArray());
+                long min = list.stream().mapToLong(Sample::firstLoginMillis).min().orElse(0);
+                double heap = median(list.stream().mapToLong(Sample::heapBytes).toArray()) / 1048576.0;
+                double nonHeap = median(list.stream().mapToLong(Sample::nonHeapBytes).toArray()) / 1048576.0;
+                double rss = median(list.stream().mapToLong(Sample::rssBytes).toArray()) / 1048576.0;
+                System.out.printf("%-14s %14d %14d %10.1f %10.1f %10.1f%n", entry.getKey(), login, min, heap, nonHeap, rss);
+                csv.printf(Locale.ROOT, "%s,%d,%d,%.1f,%.1f,%.1f%n", entry.getKey(), login, min, heap, nonHeap, rss);
+            }
+        }
+        System.out.printf("report: %s%n", csvFile.toAbsolutePath());
+    }
+
+    private static long median(long[] values) {
+        Arrays.sort(values);
+        return values.length == 0 ? 0 : values[values.length / 2];
+    }
+
+    record Sample(long firstLoginMillis, long heapBytes, long nonHeapBytes, long rssBytes) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "first login %d ms, heap %.1f MB, nonheap %.1f MB, rss %.1f MB",
+                    firstLoginMillis, heapBytes / 1048576.0, nonHeapBytes / 1048576.0, rssBytes / 1048576.0);
+        }
+    }
+}
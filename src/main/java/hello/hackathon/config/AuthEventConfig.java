@@ -0,0 +1,25 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.auth-events") //application.yml에서 관련 값 들고 와 매핑
+//인증 이벤트(로그인/회전/거절/로그아웃) 기록 설정 (AuthEventBus)
+public class AuthEventConfig {
+    private boolean enabled = true;
+    private int capacity = 8192;           // 링 버퍼 슬롯 수 (2의 거듭제곱으로 올림), 가득 차면 버리고 센다.
+    private int batchSize = 256;           // 싱크에 한 번에 넘기는 최대 이벤트 수
+    private long flushIntervalMillis = 100; // 비어 있을 때 소비 스레드가 쉬는 시간 (= 기록 지연 상한)
+    private Sink sink = Sink.FILE;
+    private String filePath = "./logs/auth-events.ndjson";
+
+    public enum Sink {
+        FILE, // 로컬 파일에 한 줄에 JSON 하나씩 이어 붙임
+        JDBC  // auth_event 테이블에 배치 INSERT
+    }
+}
@@ -5,6 +5,10 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Getter
 @Setter
@@ -12,7 +16,32 @@ import org.springframework.stereotype.Component;
 //토큰 발급을 위한 Jwt 관련 정보 불러오기
 public class JwtConfig {
     private String issuer;
-    private String secret;
+    private String secret; // HS256 키 (ES256에서는 accept-legacy-hmac일 때 기존 토큰 검증용)
     private long accessTtlSeconds;
     private long refreshTtlSeconds;
+    private long verifyCacheSize = 10_000; //검증된 토큰 캐시 크기 (0이면 끔)
+
+    private Algorithm algorithm = Algorithm.HS256;
+    private boolean acceptLegacyHmac = true; // ES256으로 바꾼 뒤에도 kid 없는 HS256 토큰을 받아줄지
+    private long jwksMaxAgeSeconds = 300;    // /.well-known/jwks.json Cache-Control max-age
+    private List<SigningKey> keys = new ArrayList<>();
+
+    public enum Algorithm {
+        HS256, // 대칭키 - 검증하는 쪽도 secret이 필요
+        ES256  // P-256 ECDSA - 다른 서비스는 JWKS 공개키로 직접 검증
+    }
+
+    //ES256 키 링의 키 하나
+    //서명은 [notBefore, notAfter) 구간에 있는 키 중 notBefore가 가장 늦은 키로 한다.
+    //notAfter 이후에도 refresh TTL 동안은 검증 + JWKS 게시 (그 키로 서명한 토큰이 아직 살아 있을 수 있음)
+    //-> 새 키는 notBefore를 미래로 잡아 미리 등록해 두면 JWKS에 먼저 게시되고, 그 시각부터 서명에 쓰인다.
+    @Getter
+    @Setter
+    public static class SigningKey {
+        private String kid;
+        private String privateKey; // PKCS#8 (PEM 또는 base64), 없으면 검증 전용
+        private String publicKey;  // X.509 SubjectPublicKeyInfo (PEM 또는 base64)
+        private Instant notBefore;
+        private Instant notAfter;
+    }
 }
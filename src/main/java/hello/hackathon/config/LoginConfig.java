@@ -0,0 +1,21 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.login") //application.yml에서 관련 값 들고 와 매핑
+//로그인(/auth/kakao/login) 실행 방식 설정
+public class LoginConfig {
+    private Mode mode = Mode.BLOCKING;
+
+    public enum Mode {
+        BLOCKING,        // 요청 스레드에서 그대로 실행
+        VIRTUAL_THREADS, // 가상 스레드에서 실행 (Java 21 + spring.threads.virtual.enabled=true)
+        REACTIVE         // 카카오 호출 논블로킹 + Mono<LoginResponse> 반환
+    }
+}
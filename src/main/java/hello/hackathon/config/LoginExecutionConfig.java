@@ -0,0 +1,27 @@
+package hello.hackathon.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class LoginExecutionConfig {
+    //VIRTUAL_THREADS 모드에서 로그인 작업을 넘길 스케줄러
+    //Java 21 + spring.threads.virtual.enabled=true 이면 applicationTaskExecutor가 가상 스레드 기반으로 만들어진다.
+    //그렇지 않은데 VIRTUAL_THREADS를 고르면 크기가 정해진 플랫폼 스레드 풀에서 조용히 돌게 되므로 시작 시 실패시킨다.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler loginScheduler(@Qualifier("applicationTaskExecutor") Executor executor,
+                                    LoginConfig loginConfig, Environment environment) {
+        if (loginConfig.getMode() == LoginConfig.Mode.VIRTUAL_THREADS && !Threading.VIRTUAL.isActive(environment)) {
+            throw new IllegalStateException("app.login.mode=virtual-threads requires Java 21+ and "
+                    + "spring.threads.virtual.enabled=true (running on Java " + Runtime.version().feature() + ")");
+        }
+        return Schedulers.fromExecutor(executor);
+    }
+}
@@ -0,0 +1,49 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit") //application.yml에서 관련 값 들고 와 매핑
+//인증 엔드포인트(/auth/**) 요청 수 제한 설정 (RateLimitFilter)
+public class RateLimitConfig {
+    private boolean enabled = true;
+    private long maxBuckets = 200_000;       // 키(IP/토큰/유저)별 버킷 최대 개수
+    private long idleSeconds = 600;          // 이 시간 동안 요청이 없던 버킷은 제거
+    private boolean trustForwardedFor = false; // 프록시 뒤일 때만 true (X-Forwarded-For에서 클라이언트 IP를 꺼냄)
+    //우리 쪽 프록시 수 - X-Forwarded-For 오른쪽에서 이 번째 값을 클라이언트 IP로 (앞쪽 값은 클라이언트가 마음대로 넣을 수 있음)
+    private int trustedProxyHops = 1;
+    private int maxBodyBytes = 8192;         // refresh-token 키를 뽑으려고 읽는 요청 본문 최대 크기
+    //위에서부터 처음 맞는 규칙 하나만 적용, 맞는 규칙이 없으면 제한 없음
+    private List<Rule> rules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String path;                 // Ant 패턴 (/auth/*/login)
+        private Rate ip;                     // 클라이언트 IP별, 없으면 IP 제한 없음
+        private Subject subject = Subject.NONE;
+        private Rate subjectRate;            // subject별
+
+        public enum Subject {
+            NONE,
+            REFRESH_TOKEN, // 요청 본문 refreshToken의 해시
+            USER           // Authorization 액세스 토큰의 uid
+        }
+    }
+
+    //burst개까지 한 번에, 이후 초당 per-second개 (GCRA)
+    @Getter
+    @Setter
+    public static class Rate {
+        private int burst = 10;
+        private double perSecond = 1;
+    }
+}
@@ -0,0 +1,77 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.refresh-token") //application.yml에서 관련 값 들고 와 매핑
+//리프레시 토큰 저장소 관련 설정
+public class RefreshTokenConfig {
+    //이전 스키마(token 컬럼, hex 문자열)에 남아 있는 값을 token_hash(바이너리)로 옮길지
+    private boolean migrateLegacyHash = true;
+    private int migrationBatchSize = 500;
+    //유저당 동시에 살아 있는 세션 패밀리(기기) 수 상한, 넘으면 새 로그인 시 가장 오래된 것부터 폐기 (0이면 제한 없음)
+    private int maxFamiliesPerUser = 5;
+
+    private Store store = new Store();
+    private Purge purge = new Purge();
+    private RevocationIndex revocationIndex = new RevocationIndex();
+    private WriteBehind writeBehind = new WriteBehind();
+
+    //토큰 상태 저장소 (TokenStateStore 구현 선택)
+    @Getter
+    @Setter
+    public static class Store {
+        private Type type = Type.JPA;
+        private String embeddedPath = "./data/refresh-tokens.mv";
+        private boolean embeddedMemoryMapped = false; // 파일을 메모리 매핑해서 읽기 (nioMapped:)
+        private boolean embeddedCommitOnWrite = false; // false면 MVStore 백그라운드 커밋(약 1초)에 맡김
+
+        public enum Type {
+            JPA,      // RefreshToken 테이블
+            MEMORY,   // 프로세스 내 맵 (재시작 시 사라짐)
+            EMBEDDED  // H2 MVStore 파일
+        }
+    }
+
+    //만료/회전/폐기된 토큰 행 정리 작업
+    @Getter
+    @Setter
+    public static class Purge {
+        private boolean enabled = true;
+        private long intervalSeconds = 600;
+        private int batchSize = 1000;        // 한 번의 DELETE로 지우는 최대 행 수
+        private int maxBatchesPerRun = 100;  // 한 번 실행에서 도는 최대 배치 수
+        private long graceSeconds = 86400;   // 만료/폐기 후 이 시간이 지난 행만 삭제 (회전된 행은 만료 후, trusted reissue 모드에서는 최소 refresh TTL)
+    }
+
+    //회전/폐기된 토큰 해시 인메모리 인덱스 (DB 조회 없이 바로 거절)
+    @Getter
+    @Setter
+    public static class RevocationIndex {
+        private boolean enabled = true;
+        private int capacity = 262_144; // 엔트리당 약 25바이트 + load factor 여유
+        private int maxCapacity = 2_097_152; // 가득 차면 두 배씩 이 크기까지 늘림
+        private long rebuildCheckSeconds = 60; // 못 넣은 토큰이 생겼을 때 다시 채우기를 시도하는 주기
+    }
+
+    //발급 기록 저장 방식
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        private Mode mode = Mode.SYNC;
+        private int queueCapacity = 10_000;
+        private int batchSize = 200;
+        private long flushIntervalMillis = 50;
+        private long offerTimeoutMillis = 10; // 큐가 가득 찼을 때 기다리는 시간 (지나면 동기 저장)
+
+        public enum Mode {
+            SYNC,        // 응답 전에 같은 트랜잭션에서 저장
+            WRITE_BEHIND // 큐에 넣고 백그라운드에서 배치 저장
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.reissue") //application.yml에서 관련 값 들고 와 매핑
+//액세스 토큰 재발급(/auth/token/access) 방식 설정
+public class ReissueConfig {
+    private Mode mode = Mode.DB;
+    //revocation feed가 마지막으로 성공한 뒤 이 시간이 지나면 trusted 모드를 멈추고 DB로 확인
+    //= 다른 노드에서 폐기한 토큰이 이 노드에서 최대 얼마 동안 더 통과할 수 있는지
+    private long maxStalenessMillis = 5_000;
+    private long feedPollMillis = 1_000;
+    //폐기 시각 기록과 커밋 사이 지연 + 노드 간 시계 차이만큼 이전 폴링 구간과 겹쳐서 읽음
+    private long feedOverlapMillis = 2_000;
+
+    public enum Mode {
+        DB,      // 매번 토큰 행과 유저를 DB(저장소)에서 확인
+        TRUSTED  // 서명된 refresh JWT의 클레임 + 인메모리 폐기 인덱스만으로 발급 (feed가 최신일 때만)
+    }
+}
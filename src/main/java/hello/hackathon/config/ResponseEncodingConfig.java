@@ -0,0 +1,16 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.response") //application.yml에서 관련 값 들고 와 매핑
+//응답 인코딩 설정
+public class ResponseEncodingConfig {
+    //Accept: application/cbor 또는 application/x-jackson-smile 요청에 바이너리로 응답할지 (기본 응답은 항상 JSON)
+    private boolean binaryFormats = true;
+}
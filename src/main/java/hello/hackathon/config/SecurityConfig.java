@@ -17,7 +17,8 @@ public class SecurityConfig {
         // 세션 사용하지 않음 (JWT 기반 인증)
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                    .requestMatchers("/auth/**", "/h2-console/**").permitAll()
+                    .requestMatchers("/auth/**", "/h2-console/**", "/.well-known/jwks.json").permitAll()
+                    .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // 메트릭 스크랩
                     .anyRequest().permitAll()
             );
         return http.build();
@@ -0,0 +1,53 @@
+package hello.hackathon.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//느린 쿼리 로그 샘플링 (logback-spring.xml의 turboFilter로 등록)
+//hibernate.log_slow_query를 넘긴 쿼리는 org.hibernate.SQL_SLOW 로거로 남는데,
+//DB가 통째로 느려지면 모든 쿼리가 한꺼번에 찍히므로 초당 max-per-second건까지만 남기고 나머지는 버린다.
+//로그 이벤트를 만들기 전에 판단하므로 버려지는 호출은 메시지 포맷팅도 하지 않음
+public class SlowQueryLogSampler extends TurboFilter {
+    private String loggerName = "org.hibernate.SQL_SLOW";
+    private int maxPerSecond = 5;
+
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger inWindow = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || !loggerName.equals(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long current = window.get();
+        if (current != second && window.compareAndSet(current, second)) {
+            inWindow.set(0);
+        }
+        if (inWindow.incrementAndGet() <= maxPerSecond) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    //지금까지 버린 느린 쿼리 로그 수
+    public long getSuppressed() {
+        return suppressed.get();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+}
@@ -0,0 +1,17 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "social.cache") //application.yml에서 관련 값 들고 와 매핑
+//소셜 프로필 조회 결과 캐시 설정 (끄기 / 크기 / TTL)
+public class SocialCacheConfig {
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    private long ttlSeconds = 30;
+}
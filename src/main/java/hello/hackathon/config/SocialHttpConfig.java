@@ -0,0 +1,34 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "social.http") //application.yml에서 관련 값 들고 와 매핑
+//소셜 로그인 제공자(카카오/네이버/구글/애플) API 호출용 공유 HTTP 클라이언트(커넥션 풀, 타임아웃, 응답 크기 제한) 설정
+public class SocialHttpConfig {
+    //커넥션 풀
+    private int maxConnections = 200;
+    private int pendingAcquireMaxCount = 500;
+    private long pendingAcquireTimeoutMillis = 1000;
+    private long maxIdleTimeSeconds = 30;   // keep-alive 커넥션을 놀려둘 수 있는 최대 시간
+    private long maxLifeTimeSeconds = 300;
+    private long evictInBackgroundSeconds = 30;
+    private boolean metricsEnabled = true;  // 풀 사용량 Micrometer 메트릭
+
+    //타임아웃
+    private int connectTimeoutMillis = 1000;
+    private long readTimeoutMillis = 3000;
+    private long responseTimeoutMillis = 3000;
+    private long requestTimeoutMillis = 5000; // 호출 전체(풀 대기 포함)에 대한 상한
+
+    //응답 본문 최대 크기
+    private int maxInMemorySizeBytes = 64 * 1024;
+
+    //TLS 상에서 HTTP/2 협상 (실패 시 HTTP/1.1)
+    private boolean http2 = false;
+}
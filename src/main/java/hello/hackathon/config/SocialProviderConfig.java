@@ -0,0 +1,40 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "social.provider") //application.yml에서 관련 값 들고 와 매핑
+//소셜 로그인 제공자별 엔드포인트 설정
+public class SocialProviderConfig {
+    private UserInfo kakao = new UserInfo("https://kapi.kakao.com/v2/user/me");
+    private UserInfo naver = new UserInfo("https://openapi.naver.com/v1/nid/me");
+    private UserInfo google = new UserInfo("https://openidconnect.googleapis.com/v1/userinfo");
+    private Apple apple = new Apple();
+
+    //액세스 토큰(Bearer)으로 사용자 정보를 조회하는 제공자
+    @Getter
+    @Setter
+    public static class UserInfo {
+        private String userinfoUri;
+
+        public UserInfo(String userinfoUri) {
+            this.userinfoUri = userinfoUri;
+        }
+    }
+
+    //애플은 사용자 정보 API가 없어서 id_token(JWT)을 애플 공개키(JWKS)로 직접 검증
+    @Getter
+    @Setter
+    public static class Apple {
+        private String keysUri = "https://appleid.apple.com/auth/keys";
+        private String issuer = "https://appleid.apple.com";
+        private String clientId;                        // id_token aud (Services ID / 번들 ID), 없으면 애플 로그인 거절
+        private long keysCacheSeconds = 3600;
+        private long keysRefreshMinIntervalSeconds = 60; // 모르는 kid가 와도 이 간격보다 자주 다시 받지 않음
+    }
+}
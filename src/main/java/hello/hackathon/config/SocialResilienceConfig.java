@@ -0,0 +1,62 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "social.resilience") //application.yml에서 관련 값 들고 와 매핑
+//소셜 제공자 API 호출 보호 설정 (제공자별로 따로 적용, UpstreamGuard 참고)
+public class SocialResilienceConfig {
+    private Bulkhead bulkhead = new Bulkhead();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Hedge hedge = new Hedge();
+    private Retry retry = new Retry();
+
+    //제공자별 동시 호출 수 상한 - 넘치면 기다리지 않고 503
+    @Getter
+    @Setter
+    public static class Bulkhead {
+        private int maxConcurrentCalls = 100;
+        private long maxWaitMillis = 0;
+    }
+
+    //최근 호출의 실패율(5xx/타임아웃/연결 실패, 4xx는 제외)이 임계치를 넘으면 열림 -> 제공자 호출 없이 바로 503
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;   // 100이면 느린 호출만으로는 열리지 않음
+        private long slowCallDurationMillis = 3000;
+        private int slidingWindowSize = 50;          // 최근 N건 기준
+        private int minimumNumberOfCalls = 20;       // 이보다 적으면 실패율 계산 안 함
+        private long waitInOpenMillis = 10_000;      // 열린 뒤 half-open으로 넘어가기까지
+        private int permittedCallsInHalfOpen = 5;
+    }
+
+    //첫 요청이 지연(최근 성공 응답의 p95)보다 오래 걸리면 같은 요청을 한 번 더 보내고 먼저 온 응답을 쓴다.
+    //서킷이 닫혀 있을 때만, 남는 bulkhead 자리가 있을 때만 보냄
+    @Getter
+    @Setter
+    public static class Hedge {
+        private boolean enabled = true;
+        private double percentile = 0.95;
+        private int minSamples = 50;            // 표본이 이보다 적으면 initial-delay-millis 사용
+        private long initialDelayMillis = 300;
+        private long minDelayMillis = 50;
+        private long maxDelayMillis = 1000;
+    }
+
+    //재시도 - 전부 GET(멱등)이고, 5xx/연결 실패만 (4xx, 타임아웃, 서킷 열림, bulkhead 초과는 재시도 안 함)
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxRetries = 1;
+        private long minBackoffMillis = 50;
+        private long maxBackoffMillis = 500;
+        private double jitter = 0.5;
+    }
+}
@@ -0,0 +1,17 @@
+package hello.hackathon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.user-cache") //application.yml에서 관련 값 들고 와 매핑
+//토큰 경로용 유저 요약(id/email/nickname) 캐시 설정 (끄기 / 크기 / TTL)
+public class UserCacheConfig {
+    private boolean enabled = true;
+    private int maximumSize = 16_384;
+    private long ttlSeconds = 300;
+}
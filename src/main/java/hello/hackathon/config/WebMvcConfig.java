@@ -0,0 +1,27 @@
+package hello.hackathon.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+//jackson-dataformat-cbor / smile 이 클래스패스에 있으면 스프링 MVC가 JSON 컨버터 뒤에 CBOR/Smile 컨버터를 자동 등록한다.
+//-> Accept 헤더가 없거나 */* 이면 JSON, application/cbor 또는 application/x-jackson-smile 이면 바이너리
+//app.response.binary-formats=false 면 두 컨버터를 빼서 JSON만 응답
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+    private final ResponseEncodingConfig responseEncodingConfig;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (!responseEncodingConfig.isBinaryFormats()) {
+            converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                    || c instanceof MappingJackson2SmileHttpMessageConverter);
+        }
+    }
+}
@@ -5,17 +5,31 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
+import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+        //해시로 단건 조회 (refresh / reissue)
+        @Index(name = "ux_refresh_token_hash", columnList = "token_hash", unique = true),
+        //유저별 최신 토큰 조회 (findTopByUserEntityOrderByIssuedAtDesc), 유저 단위 일괄 폐기 / 패밀리 수 제한
+        @Index(name = "ix_refresh_token_user_issued", columnList = "userEntity_id, issuedAt"),
+        //세션 패밀리 단위 일괄 폐기
+        @Index(name = "ix_refresh_token_family", columnList = "familyId"),
+        //최근 회전/폐기된 토큰 조회 (RevocationFeed)
+        @Index(name = "ix_refresh_token_rotated_at", columnList = "rotatedAt"),
+        @Index(name = "ix_refresh_token_revoked_at", columnList = "revokedAt")
+})
 @Getter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class RefreshToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_seq")
+    @SequenceGenerator(name = "refresh_token_seq", sequenceName = "refresh_token_seq", allocationSize = 50)
     private Long id;
 
     //누구의 토큰인지
@@ -23,12 +37,21 @@ public class RefreshToken {
     @JoinColumn(name="userEntity_id")
     private UserEntity userEntity;
 
-    private String token; //당연히 해시된 상태
+    //당연히 해시된 상태 - SHA-256 32바이트를 hex 문자열(64자) 대신 바이너리로 저장
+    @Column(name = "token_hash", length = 32)
+    private byte[] token;
+    //세션 패밀리 (로그인 한 번에서 시작된 회전 체인), 이전 스키마의 행은 null
+    private UUID familyId;
     private Instant issuedAt;
     private Instant expiresAt;
     private Instant revokedAt; // 로그아웃/강제폐기 시
     private Instant rotatedAt; //회전 시
 
+    //동시 회전 방지용 낙관적 락 (같은 토큰을 두 요청이 동시에 회전시키면 나중 커밋이 실패)
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     public void revoke(Instant instant){
         this.revokedAt = instant;
     }
@@ -7,22 +7,27 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(indexes = {
+        //로그인/연동 시 (provider, providerId) 단건 조회, 같은 소셜 계정은 한 유저에만 연동
+        @Index(name = "ux_social_account_provider_id", columnList = "provider, providerId", unique = true)
+})
 @Getter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class SocialAccount extends BaseTime{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "social_account_seq")
+    @SequenceGenerator(name = "social_account_seq", sequenceName = "social_account_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
     private SocialProvider provider;
 
-    @Column(unique = true)
+    //제공자 안에서만 유일 (다른 제공자끼리는 같은 값이 나올 수 있음)
     private String providerId;
 
-    //확장 대비 ManyToOne으로 해놓긴 했는데, 일단 카카오만 연동 가능하게 구현할 예정
+    //한 유저에 여러 제공자 계정을 연동할 수 있다. (POST /auth/link)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="userEntity_id")
     private UserEntity userEntity;
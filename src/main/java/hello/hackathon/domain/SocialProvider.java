@@ -1,5 +1,8 @@
 package hello.hackathon.domain;
 
 public enum SocialProvider {
-    KAKAO
+    KAKAO,
+    NAVER,
+    GOOGLE,
+    APPLE
 }
@@ -1,5 +1,6 @@
 package hello.hackathon.domain;
 
+import hello.hackathon.service.UserSummaryInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
+@EntityListeners(UserSummaryInvalidator.class) // 수정/삭제 시 UserSummaryCache 무효화
 @Getter
 @Builder
 @NoArgsConstructor
@@ -14,7 +16,9 @@ import lombok.NoArgsConstructor;
 public class UserEntity extends BaseTime{
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //IDENTITY는 persist 즉시 INSERT가 나가고 JDBC 배치도 꺼지므로 시퀀스 + pooled 옵티마이저(50개씩 미리 확보) 사용
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_entity_seq")
+    @SequenceGenerator(name = "user_entity_seq", sequenceName = "user_entity_seq", allocationSize = 50)
     private Long id;
 
     private String email;
@@ -0,0 +1,5 @@
+package hello.hackathon.dto;
+
+//액세스 토큰 재발급 응답 (/auth/token/access)
+public record AccessTokenResponse(String accessToken, long accessTtlSec) {
+}
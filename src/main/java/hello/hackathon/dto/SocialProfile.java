@@ -0,0 +1,8 @@
+package hello.hackathon.dto;
+
+import hello.hackathon.domain.SocialProvider;
+
+//소셜 로그인 제공자에서 받아온 프로필 (제공자가 주지 않는 값은 null)
+public record SocialProfile(SocialProvider provider, String id, String email, String nickname,
+                            String profileImageUrl, String thumbnailImageUrl) {
+}
@@ -0,0 +1,6 @@
+package hello.hackathon.dto;
+
+//본문이 상태 값 하나뿐인 응답 (/auth/logout)
+public record StatusResponse(String status) {
+    public static final StatusResponse OK = new StatusResponse("ok");
+}
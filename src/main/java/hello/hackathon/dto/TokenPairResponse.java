@@ -0,0 +1,5 @@
+package hello.hackathon.dto;
+
+//리프레시 토큰 회전 응답 (/auth/token/refresh)
+public record TokenPairResponse(String accessToken, String refreshToken, long accessTtlSec, long refreshTtlSec) {
+}
@@ -0,0 +1,5 @@
+package hello.hackathon.dto;
+
+//액세스 토큰 발급에 필요한 유저 정보만 담은 불변 프로젝션
+public record UserSummary(Long id, String email, String nickname) {
+}
@@ -0,0 +1,30 @@
+package hello.hackathon.event;
+
+import hello.hackathon.domain.SocialProvider;
+import lombok.Getter;
+
+//링 버퍼의 슬롯 - 시작 시 capacity개를 미리 만들어 두고 계속 덮어쓴다. (이벤트마다 객체를 만들지 않음)
+//싱크는 write() 안에서만 읽고 참조를 들고 있으면 안 된다. (반환 후 다른 이벤트로 덮어씀)
+@Getter
+public final class AuthEvent {
+    private AuthEventType type;
+    private long timestampMillis;
+    private Long userId;              // 모르면 null (거절된 토큰 등)
+    private SocialProvider provider;  // 로그인 이벤트만
+    private String detail;            // 거절 사유 등
+
+    void set(AuthEventType type, long timestampMillis, Long userId, SocialProvider provider, String detail) {
+        this.type = type;
+        this.timestampMillis = timestampMillis;
+        this.userId = userId;
+        this.provider = provider;
+        this.detail = detail;
+    }
+
+    //테스트/싱크에서 슬롯 밖으로 값을 남겨야 할 때
+    public AuthEvent copy() {
+        AuthEvent copy = new AuthEvent();
+        copy.set(type, timestampMillis, userId, provider, detail);
+        return copy;
+    }
+}
@@ -0,0 +1,180 @@
+package hello.hackathon.event;
+
+import hello.hackathon.config.AuthEventConfig;
+import hello.hackathon.domain.SocialProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//인증 이벤트 파이프라인 - 요청 스레드는 미리 만들어 둔 링 버퍼 슬롯에 값만 채우고 바로 돌아간다.
+//백그라운드 소비 스레드 하나가 모아서 batch-size씩 AuthEventSink(파일/DB)로 내보낸다.
+//  - 생산자 여럿 / 소비자 하나: 시퀀스는 CAS로 하나씩 받고, 슬롯을 다 채운 뒤 published에 시퀀스를 써서 공개
+//  - 링이 가득 차면(싱크가 느리거나 멈춤) 기다리지 않고 버린 뒤 dropped로 센다. -> 요청 경로는 절대 막히지 않음
+//  - 생산자는 소비 스레드를 깨우지 않는다. (unpark 시스템 콜도 요청 경로에서 빼기 위함, 대신 최대 flush-interval-millis 지연)
+//  - 종료 시 남은 이벤트를 모두 내보냄, 크래시 시 링에 있던 이벤트는 유실
+@Slf4j
+@Component
+public class AuthEventBus implements MeterBinder {
+    private final AuthEventConfig config;
+    private final AuthEventSink sink;
+    private final boolean enabled;
+
+    private final AuthEvent[] slots;
+    //슬롯별로 마지막에 공개된 시퀀스 + 1 (0 = 아직 한 번도 안 씀)
+    private final AtomicLongArray published;
+    private final int mask;
+    //다음에 나눠 줄 시퀀스 (= 지금까지 받아들인 이벤트 수)
+    private final AtomicLong claimed = new AtomicLong();
+    //소비 스레드가 다음에 읽을 시퀀스, 이보다 앞의 슬롯은 다시 써도 된다. (소비 스레드만 씀)
+    private volatile long consumed;
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<AuthEvent> batch;
+
+    private volatile boolean running;
+    private Thread consumer;
+
+    public AuthEventBus(AuthEventConfig config, Optional<AuthEventSink> sink) {
+        this.config = config;
+        this.sink = sink.orElse(null);
+        this.enabled = config.isEnabled() && this.sink != null;
+        int capacity = Integer.highestOneBit(Math.max(2, config.getCapacity()) * 2 - 1); // 2의 거듭제곱으로 올림
+        this.slots = new AuthEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuthEvent();
+        }
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.batch = new ArrayList<>(Math.max(1, config.getBatchSize()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        consumer = new Thread(this::consumeLoop, "auth-event-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    //요청 스레드에서 호출 - 할당/락/블로킹 없음, 링이 가득 차면 false (버린 수는 dropped로)
+    public boolean publish(AuthEventType type, Long userId, SocialProvider provider, String detail) {
+        if (!enabled) {
+            return false;
+        }
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+        int index = (int) seq & mask;
+        slots[index].set(type, System.currentTimeMillis(), userId, provider, detail);
+        published.lazySet(index, seq + 1); // 슬롯 값을 다 쓴 뒤에 공개 (소비 스레드의 get과 짝)
+        return true;
+    }
+
+    public long publishedCount() {
+        return claimed.get();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    //링에 남아 있는 (아직 싱크로 안 나간) 이벤트 수
+    public long backlog() {
+        return claimed.get() - consumed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.events.published", this, AuthEventBus::publishedCount)
+                .description("Auth events accepted into the ring buffer")
+                .register(registry);
+        FunctionCounter.builder("auth.events.dropped", this, AuthEventBus::droppedCount)
+                .description("Auth events dropped because the ring buffer was full")
+                .register(registry);
+        FunctionCounter.builder("auth.events.failed", this, AuthEventBus::failedCount)
+                .description("Auth events lost because the sink failed")
+                .register(registry);
+        Gauge.builder("auth.events.backlog", this, AuthEventBus::backlog)
+                .description("Auth events waiting in the ring buffer")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+        //소비 스레드가 못 끝낸 나머지는 여기서
+        while (drainOnce() > 0) {
+            // 남은 게 없을 때까지
+        }
+        sink.close();
+    }
+
+    private void consumeLoop() {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getFlushIntervalMillis()));
+        while (running) {
+            if (drainOnce() == 0) {
+                LockSupport.parkNanos(this, idleNanos);
+            }
+        }
+    }
+
+    //공개된 연속 구간을 batch-size까지 모아 싱크로 보내고, 보낸 뒤에야 슬롯을 돌려준다.
+    //synchronized: 종료 시 호출 스레드와 소비 스레드가 겹칠 때만 (평소엔 경합 없음)
+    private synchronized int drainOnce() {
+        long next = consumed;
+        int max = Math.max(1, config.getBatchSize());
+        batch.clear();
+        while (batch.size() < max) {
+            int index = (int) (next + batch.size()) & mask;
+            if (published.get(index) != next + batch.size() + 1) {
+                break; // 아직 안 채워졌거나 채우는 중
+            }
+            batch.add(slots[index]);
+        }
+        int count = batch.size();
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            sink.write(batch);
+        } catch (Exception e) {
+            failed.addAndGet(count);
+            log.warn("auth event sink failed, dropped {} events", count, e);
+        } finally {
+            batch.clear();
+            consumed = next + count;
+        }
+        return count;
+    }
+}
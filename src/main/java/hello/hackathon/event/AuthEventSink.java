@@ -0,0 +1,13 @@
+package hello.hackathon.event;
+
+import java.util.List;
+
+//인증 이벤트를 내보낼 곳 (app.auth-events.sink로 구현 선택)
+//AuthEventBus의 소비 스레드 하나에서만 호출된다. 예외를 던지면 그 배치는 버리고 실패 수로 센다.
+public interface AuthEventSink {
+    //batch의 원소는 재사용되는 슬롯이므로 반환 전에 다 써야 한다.
+    void write(List<AuthEvent> batch) throws Exception;
+
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,11 @@
+package hello.hackathon.event;
+
+//인증 이벤트 종류
+public enum AuthEventType {
+    LOGIN_NEW,        // 신규 가입 로그인
+    LOGIN_EXISTING,   // 기존 회원 로그인
+    REFRESH_ROTATED,  // 리프레시 토큰 회전 성공
+    REFRESH_REJECTED, // refresh/reissue 거절 (detail = 사유)
+    LOGOUT,           // detail = all이면 모든 기기에서 로그아웃
+    FAMILY_REVOKED    // 세션 패밀리 강제 폐기 (detail = reuse: 회전된 토큰 재사용, evicted: 패밀리 수 상한 초과)
+}
@@ -0,0 +1,75 @@
+package hello.hackathon.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import hello.hackathon.config.AuthEventConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+//로컬 파일에 한 줄에 JSON 하나씩 이어 붙이는 싱크 (NDJSON, 로그 수집기가 그대로 읽어 갈 수 있는 형식)
+//  {"ts":"2026-10-18T01:23:45.678Z","type":"LOGIN_NEW","uid":1,"provider":"kakao"}
+//파일은 첫 배치에서 연다. 배치마다 flush만 하고 fsync는 하지 않음 (프로세스 크래시에는 OS 버퍼가 남는다)
+@Component
+@ConditionalOnProperty(prefix = "app.auth-events", name = "sink", havingValue = "file", matchIfMissing = true)
+public class FileAuthEventSink implements AuthEventSink {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final Path path;
+    private JsonGenerator generator;
+
+    public FileAuthEventSink(AuthEventConfig config) {
+        this.path = Path.of(config.getFilePath());
+    }
+
+    @Override
+    public void write(List<AuthEvent> batch) throws IOException {
+        JsonGenerator out = open();
+        for (AuthEvent event : batch) {
+            out.writeStartObject();
+            out.writeStringField("ts", Instant.ofEpochMilli(event.getTimestampMillis()).toString());
+            out.writeStringField("type", event.getType().name());
+            if (event.getUserId() != null) {
+                out.writeNumberField("uid", event.getUserId());
+            }
+            if (event.getProvider() != null) {
+                out.writeStringField("provider", event.getProvider().name().toLowerCase(Locale.ROOT));
+            }
+            if (event.getDetail() != null) {
+                out.writeStringField("detail", event.getDetail());
+            }
+            out.writeEndObject();
+            out.writeRaw('\n');
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+    }
+
+    private JsonGenerator open() throws IOException {
+        if (generator == null) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            generator = FACTORY.createGenerator(Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("")); // 루트 값 사이 구분자는 위의 줄바꿈만
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,51 @@
+package hello.hackathon.event;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+//auth_event 테이블에 배치 INSERT 하는 싱크
+//엔티티가 아니므로 ddl-auto와 상관없이 시작 시 테이블이 없으면 만든다.
+//배치 하나에 커넥션 하나를 잠깐 빌리므로, 요청 경로와 같은 커넥션 풀을 쓴다는 점에 주의
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.auth-events", name = "sink", havingValue = "jdbc")
+public class JdbcAuthEventSink implements AuthEventSink {
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("""
+                create table if not exists auth_event (
+                    id bigint generated by default as identity primary key,
+                    occurred_at timestamp not null,
+                    type varchar(32) not null,
+                    user_id bigint,
+                    provider varchar(16),
+                    detail varchar(255)
+                )""");
+    }
+
+    @Override
+    public void write(List<AuthEvent> batch) {
+        jdbcTemplate.batchUpdate(
+                "insert into auth_event (occurred_at, type, user_id, provider, detail) values (?, ?, ?, ?, ?)",
+                batch, batch.size(), (ps, event) -> {
+                    ps.setTimestamp(1, new Timestamp(event.getTimestampMillis()));
+                    ps.setString(2, event.getType().name());
+                    if (event.getUserId() == null) {
+                        ps.setNull(3, Types.BIGINT);
+                    } else {
+                        ps.setLong(3, event.getUserId());
+                    }
+                    ps.setString(4, event.getProvider() == null ? null : event.getProvider().name());
+                    ps.setString(5, event.getDetail());
+                });
+    }
+}
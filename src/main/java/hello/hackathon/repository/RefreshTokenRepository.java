@@ -2,12 +2,109 @@ package hello.hackathon.repository;
 
 import hello.hackathon.domain.RefreshToken;
 import hello.hackathon.domain.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken,Long> {
+    //RevocationIndex 반영용 프로젝션 (엔티티 전체를 올리지 않음)
+    interface InactiveToken {
+        byte[] getToken();
+        Long getUserId();
+        UUID getFamilyId();
+        Instant getIssuedAt();
+        Instant getExpiresAt();
+        Instant getRotatedAt();
+        Instant getRevokedAt();
+    }
+
     Optional<RefreshToken> findTopByUserEntityOrderByIssuedAtDesc(UserEntity u);
 
-    Optional<RefreshToken> findByUserEntityAndToken(UserEntity userEntity, String token);
+    //토큰 해시(유니크 인덱스)로 단건 조회 (유저 정보는 UserSummaryCache에서)
+    Optional<RefreshToken> findByToken(byte[] token);
+
+    //정리 대상(만료/폐기 후 cutoff가 지난 행) id를 PK 순서로 afterId 다음부터 limit개 (keyset 페이지네이션)
+    //회전만 된 행은 만료될 때까지 남김 (TokenState.isPurgeable과 같은 기준)
+    @Query("select rt.id from RefreshToken rt where rt.id > :afterId" +
+            " and (rt.expiresAt < :cutoff or rt.revokedAt < :cutoff)" +
+            " order by rt.id")
+    List<Long> findPurgeableIds(@Param("afterId") Long afterId, @Param("cutoff") Instant cutoff, Limit limit);
+
+    //아직 만료되지 않은 회전/폐기 토큰을 스트리밍으로 (호출하는 쪽에서 트랜잭션 + close 필요)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select rt.token as token, rt.userEntity.id as userId, rt.familyId as familyId," +
+            " rt.issuedAt as issuedAt, rt.expiresAt as expiresAt," +
+            " rt.rotatedAt as rotatedAt, rt.revokedAt as revokedAt from RefreshToken rt" +
+            " where rt.expiresAt > :now and (rt.rotatedAt is not null or rt.revokedAt is not null)")
+    Stream<InactiveToken> streamInactive(@Param("now") Instant now);
+
+    //아직 회전/폐기되지 않은 토큰만 회전 처리 (조건부 UPDATE = compare-and-set) -> 바뀐 행 수
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken rt set rt.rotatedAt = :at, rt.version = rt.version + 1" +
+            " where rt.token = :token and rt.rotatedAt is null and rt.revokedAt is null")
+    int rotateIfActive(@Param("token") byte[] token, @Param("at") Instant at);
+
+    //since 이후에 회전/폐기된 토큰 (revokedAt / rotatedAt 인덱스)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select rt.token as token, rt.userEntity.id as userId, rt.familyId as familyId," +
+            " rt.issuedAt as issuedAt, rt.expiresAt as expiresAt," +
+            " rt.rotatedAt as rotatedAt, rt.revokedAt as revokedAt from RefreshToken rt" +
+            " where rt.expiresAt > :now and (rt.rotatedAt >= :since or rt.revokedAt >= :since)")
+    Stream<InactiveToken> streamInactiveSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken rt set rt.revokedAt = :at, rt.version = rt.version + 1" +
+            " where rt.token = :token and rt.revokedAt is null")
+    int revokeIfNotRevoked(@Param("token") byte[] token, @Param("at") Instant at);
+
+    //세션 패밀리 통째로 폐기 (familyId 인덱스, UPDATE 한 번)
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken rt set rt.revokedAt = :at, rt.version = rt.version + 1" +
+            " where rt.familyId = :familyId and rt.userEntity.id = :userId and rt.revokedAt is null")
+    int revokeFamily(@Param("userId") Long userId, @Param("familyId") UUID familyId, @Param("at") Instant at);
+
+    //유저의 아직 폐기되지 않은 토큰 (모든 기기 로그아웃 시 폐기 직전에 읽어서 인덱스에 반영)
+    @Query("select rt.token as token, rt.userEntity.id as userId, rt.familyId as familyId," +
+            " rt.issuedAt as issuedAt, rt.expiresAt as expiresAt," +
+            " rt.rotatedAt as rotatedAt, rt.revokedAt as revokedAt from RefreshToken rt" +
+            " where rt.userEntity.id = :userId and rt.revokedAt is null and rt.expiresAt > :now")
+    List<InactiveToken> findUnrevokedByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+
+    //유저의 모든 토큰 폐기 (userEntity_id 인덱스, UPDATE 한 번)
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken rt set rt.revokedAt = :at, rt.version = rt.version + 1" +
+            " where rt.userEntity.id = :userId and rt.revokedAt is null")
+    int revokeAllByUserId(@Param("userId") Long userId, @Param("at") Instant at);
+
+    //살아 있는 토큰(패밀리당 하나)을 최근 발급 순으로 keep개만 남기고 폐기 (UPDATE 한 번)
+    //서브쿼리의 fetch first 때문에 네이티브 쿼리 (컬럼명은 스프링 기본 네이밍 전략 기준)
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "update refresh_token set revoked_at = :at, version = version + 1" +
+            " where user_entity_id = :userId and rotated_at is null and revoked_at is null" +
+            " and id not in (select k.id from refresh_token k" +
+            " where k.user_entity_id = :userId and k.rotated_at is null and k.revoked_at is null and k.expires_at > :at" +
+            " order by k.issued_at desc fetch first :keep rows only)")
+    int revokeActiveBeyond(@Param("userId") Long userId, @Param("keep") int keep, @Param("at") Instant at);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken rt where rt.id in :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
 }
@@ -3,9 +3,13 @@ package hello.hackathon.repository;
 import hello.hackathon.domain.SocialAccount;
 import hello.hackathon.domain.SocialProvider;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface SocialAccountRepository extends JpaRepository<SocialAccount, Long> {
-    Optional<SocialAccount> findByProviderAndProviderId(SocialProvider provider, String providerId);
+    //로그인 경로용 - 계정과 유저를 조인 한 번으로 (ux_social_account_provider_id 인덱스)
+    @Query("select s from SocialAccount s join fetch s.userEntity where s.provider = :provider and s.providerId = :providerId")
+    Optional<SocialAccount> findWithUserByProviderAndProviderId(@Param("provider") SocialProvider provider, @Param("providerId") String providerId);
 }
@@ -1,7 +1,15 @@
 package hello.hackathon.repository;
 
 import hello.hackathon.domain.UserEntity;
+import hello.hackathon.dto.UserSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface UserEntityRepository extends JpaRepository<UserEntity, Long> {
+    //엔티티를 영속성 컨텍스트에 올리지 않고 필요한 컬럼 3개만 조회
+    @Query("select new hello.hackathon.dto.UserSummary(u.id, u.email, u.nickname) from UserEntity u where u.id = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") Long id);
 }
@@ -0,0 +1,235 @@
+package hello.hackathon.service;
+
+import hello.hackathon.domain.SocialProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//인증 경로 메트릭 (Micrometer)
+//태그 값은 전부 enum 또는 HTTP 상태 코드로만 -> 유저/토큰별로 시계열이 늘어나지 않는다.
+//미터는 시작 시 미리 만들어 두고 호출마다 레지스트리를 다시 찾지 않는다.
+//
+//  auth.social.request       소셜 로그인 제공자 API 지연 (provider, outcome, status) - 재시도/헤지 요청도 한 건씩
+//  auth.social.retry         재시도 수 (provider)
+//  auth.social.hedge         헤지 요청 수 (provider, result=fired|won)
+//  auth.social.circuit.transition  서킷 상태 전이 (provider, from, to)
+//  auth.login                로그인 수 (user=new|existing)
+//  auth.jwt.sign             JWT 서명 시간 (type=access|refresh)
+//  auth.jwt.verify           JWT 검증 시간, 캐시 미스일 때만 (outcome=valid|invalid)
+//  auth.refresh              refresh/reissue 결과 (operation, outcome)
+//  auth.reissue.path         reissue를 DB 없이 처리했는지 (path=trusted|db)
+//  auth.refresh_token.purge  정리 작업 시간 / auth.refresh_token.purged 삭제 건수
+@Component
+public class AuthMetrics {
+    public enum UpstreamOutcome { SUCCESS, CLIENT_ERROR, SERVER_ERROR, TIMEOUT, CONNECT_ERROR, ERROR, CANCELLED }
+    public enum TokenType { ACCESS, REFRESH }
+    public enum RefreshOperation { REFRESH, REISSUE }
+    public enum RefreshOutcome {
+        ROTATED, REISSUED, EXPIRED, REVOKED, ALREADY_ROTATED, NOT_FOUND, INVALID;
+
+        //AuthService가 던지는 401 사유 -> 결과
+        static RefreshOutcome fromReason(String reason) {
+            if (reason == null) {
+                return INVALID;
+            }
+            return switch (reason) {
+                case "refresh expired", "refresh already expired" -> EXPIRED;
+                case "refresh revoked" -> REVOKED;
+                case "refresh already rotated" -> ALREADY_ROTATED;
+                case "refreshToken not found", "user not found" -> NOT_FOUND;
+                default -> INVALID;
+            };
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<SocialProvider, Timer> upstreamSuccess = new EnumMap<>(SocialProvider.class);
+    private final Map<SocialProvider, Counter> upstreamRetries = new EnumMap<>(SocialProvider.class);
+    private final Map<SocialProvider, Counter> hedgesFired = new EnumMap<>(SocialProvider.class);
+    private final Map<SocialProvider, Counter> hedgesWon = new EnumMap<>(SocialProvider.class);
+    private final Counter newUserLogins;
+    private final Counter existingUserLogins;
+    private final Map<TokenType, Timer> signTimers = new EnumMap<>(TokenType.class);
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Map<RefreshOperation, Map<RefreshOutcome, Counter>> refreshOutcomes = new EnumMap<>(RefreshOperation.class);
+    private final Counter trustedReissues;
+    private final Counter dbReissues;
+    private final Timer purgeTimer;
+    private final Counter purgedTokens;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (SocialProvider provider : SocialProvider.values()) {
+            upstreamSuccess.put(provider, upstreamTimer(provider, UpstreamOutcome.SUCCESS, "200"));
+            upstreamRetries.put(provider, Counter.builder("auth.social.retry")
+                    .description("Social provider API retries")
+                    .tag("provider", tagValue(provider))
+                    .register(registry));
+            hedgesFired.put(provider, hedgeCounter(provider, "fired"));
+            hedgesWon.put(provider, hedgeCounter(provider, "won"));
+        }
+        this.newUserLogins = loginCounter("new");
+        this.existingUserLogins = loginCounter("existing");
+        for (TokenType type : TokenType.values()) {
+            signTimers.put(type, Timer.builder("auth.jwt.sign")
+                    .description("JWT signing time")
+                    .tag("type", tagValue(type))
+                    .register(registry));
+        }
+        this.verifyValid = verifyTimer("valid");
+        this.verifyInvalid = verifyTimer("invalid");
+        for (RefreshOperation operation : RefreshOperation.values()) {
+            Map<RefreshOutcome, Counter> counters = new EnumMap<>(RefreshOutcome.class);
+            for (RefreshOutcome outcome : RefreshOutcome.values()) {
+                counters.put(outcome, Counter.builder("auth.refresh")
+                        .description("Refresh token requests by outcome")
+                        .tag("operation", tagValue(operation))
+                        .tag("outcome", tagValue(outcome))
+                        .register(registry));
+            }
+            refreshOutcomes.put(operation, counters);
+        }
+        this.trustedReissues = reissuePathCounter("trusted");
+        this.dbReissues = reissuePathCounter("db");
+        this.purgeTimer = Timer.builder("auth.refresh_token.purge")
+                .description("Refresh token purge run time")
+                .register(registry);
+        this.purgedTokens = Counter.builder("auth.refresh_token.purged")
+                .description("Refresh tokens deleted by the purge job")
+                .register(registry);
+    }
+
+    //소셜 API 호출 Mono를 감싸서 구독 시점부터 완료/에러/취소까지 시간을 잰다.
+    public <T> Mono<T> timeUpstream(SocialProvider provider, Mono<T> call) {
+        Timer success = upstreamSuccess.get(provider);
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return call
+                    .doOnSuccess(result -> success.record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> recordUpstreamError(provider, e, System.nanoTime() - started))
+                    .doOnCancel(() -> upstreamTimer(provider, UpstreamOutcome.CANCELLED, "none")
+                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    public void upstreamRetry(SocialProvider provider) {
+        upstreamRetries.get(provider).increment();
+    }
+
+    //won=false: 헤지 요청을 보냄, won=true: 헤지 요청이 첫 요청보다 먼저 응답
+    public void upstreamHedge(SocialProvider provider, boolean won) {
+        (won ? hedgesWon : hedgesFired).get(provider).increment();
+    }
+
+    //상태 전이는 드물어서 레지스트리 조회로 충분
+    public void circuitTransition(SocialProvider provider, String from, String to) {
+        Counter.builder("auth.social.circuit.transition")
+                .description("Social provider circuit breaker state transitions")
+                .tag("provider", tagValue(provider))
+                .tag("from", from.toLowerCase(Locale.ROOT))
+                .tag("to", to.toLowerCase(Locale.ROOT))
+                .register(registry)
+                .increment();
+    }
+
+    public void login(boolean newUser) {
+        (newUser ? newUserLogins : existingUserLogins).increment();
+    }
+
+    public void sign(TokenType type, long nanos) {
+        signTimers.get(type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void verify(boolean valid, long nanos) {
+        (valid ? verifyValid : verifyInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void refresh(RefreshOperation operation, RefreshOutcome outcome) {
+        refreshOutcomes.get(operation).get(outcome).increment();
+    }
+
+    public void refreshRejected(RefreshOperation operation, ResponseStatusException e) {
+        refresh(operation, RefreshOutcome.fromReason(e.getReason()));
+    }
+
+    public void reissuePath(boolean trusted) {
+        (trusted ? trustedReissues : dbReissues).increment();
+    }
+
+    public void purge(long purged, Duration took) {
+        purgeTimer.record(took);
+        purgedTokens.increment(purged);
+    }
+
+    private void recordUpstreamError(SocialProvider provider, Throwable e, long nanos) {
+        UpstreamOutcome outcome;
+        String status = "none";
+        if (e instanceof TimeoutException) {
+            outcome = UpstreamOutcome.TIMEOUT;
+        } else if (e instanceof WebClientRequestException) {
+            outcome = UpstreamOutcome.CONNECT_ERROR;
+        } else if (e instanceof ResponseStatusException rse) {
+            int code = rse.getStatusCode().value();
+            status = Integer.toString(code);
+            outcome = code >= 500 ? UpstreamOutcome.SERVER_ERROR : UpstreamOutcome.CLIENT_ERROR;
+        } else {
+            outcome = UpstreamOutcome.ERROR;
+        }
+        upstreamTimer(provider, outcome, status).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    //에러 쪽은 드물어서 레지스트리 조회로 충분 (같은 태그면 같은 미터가 돌아옴)
+    private Timer upstreamTimer(SocialProvider provider, UpstreamOutcome outcome, String status) {
+        return Timer.builder("auth.social.request")
+                .description("Social login provider API latency")
+                .tag("provider", tagValue(provider))
+                .tag("outcome", tagValue(outcome))
+                .tag("status", status)
+                .register(registry);
+    }
+
+    private Counter hedgeCounter(SocialProvider provider, String result) {
+        return Counter.builder("auth.social.hedge")
+                .description("Hedged social provider API requests")
+                .tag("provider", tagValue(provider))
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter loginCounter(String user) {
+        return Counter.builder("auth.login")
+                .description("Successful logins by user type")
+                .tag("user", user)
+                .register(registry);
+    }
+
+    private Counter reissuePathCounter(String path) {
+        return Counter.builder("auth.reissue.path")
+                .description("Access token reissues by verification path")
+                .tag("path", path)
+                .register(registry);
+    }
+
+    private Timer verifyTimer(String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("JWT signature verification time (verify cache misses)")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
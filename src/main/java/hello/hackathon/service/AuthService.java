@@ -1,80 +1,134 @@
 package hello.hackathon.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import hello.hackathon.config.JwtConfig;
-import hello.hackathon.domain.RefreshToken;
+import hello.hackathon.config.LoginConfig;
+import hello.hackathon.config.RefreshTokenConfig;
+import hello.hackathon.config.ReissueConfig;
 import hello.hackathon.domain.SocialAccount;
 import hello.hackathon.domain.SocialProvider;
 import hello.hackathon.domain.UserEntity;
-import hello.hackathon.dto.KakaoProfileDto;
+import hello.hackathon.dto.AccessTokenResponse;
 import hello.hackathon.dto.LoginResponse;
-import hello.hackathon.repository.RefreshTokenRepository;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.dto.StatusResponse;
+import hello.hackathon.dto.TokenPairResponse;
+import hello.hackathon.dto.UserSummary;
+import hello.hackathon.event.AuthEventBus;
+import hello.hackathon.event.AuthEventType;
 import hello.hackathon.repository.SocialAccountRepository;
 import hello.hackathon.repository.UserEntityRepository;
+import hello.hackathon.social.SocialProfileCache;
+import hello.hackathon.social.SocialProfileClients;
+import hello.hackathon.store.TokenState;
+import hello.hackathon.store.TokenStateStore;
 import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
+import java.nio.ByteBuffer;
 import java.time.Instant;
-import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
-//카카오 소셜 로그인 관리
+//소셜 로그인(카카오/네이버/구글/애플) 관리
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     private final UserEntityRepository users;
     private final SocialAccountRepository socialAccounts;
-    private final RefreshTokenRepository refreshTokens;
+    private final TokenStateStore tokenStore;
     private final TokenService tokenService;
+    private final TokenHasher tokenHasher;
+    private final UserSummaryCache userSummaryCache;
+    private final RevocationIndex revocationIndex;
+    private final RevocationFeed revocationFeed;
+    private final ReissueConfig reissueConfig;
     private final JwtConfig jwtConfig;
+    private final RefreshTokenConfig refreshTokenConfig;
+    private final SocialProfileCache socialProfileCache;
+    private final SocialProfileClients socialProfileClients;
+    private final LoginConfig loginConfig;
+    private final Scheduler loginScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final AuthMetrics authMetrics;
+    private final AuthEventBus authEvents;
+    //진행 중인 리프레시 토큰 회전 (토큰 해시 -> 결과)
+    private final SingleFlight<ByteBuffer, TokenPairResponse> refreshFlights = new SingleFlight<>();
 
-    // 카카오 사용자 정보 조회 API 엔드포인트
-    @Value("${kakao.userinfo-uri}")
-    private String kakaoUserinfoUri;
-
-    //스프링부트가 자동 제공해주는 WebClient.Builder
-    private final WebClient.Builder webClientBuilder;
+    //로그인 진입점 - app.login.mode에 따라 실행 방식을 고른다.
+    //BLOCKING: 요청 스레드에서 그대로 실행
+    //VIRTUAL_THREADS: loginScheduler(가상 스레드 기반 applicationTaskExecutor)로 넘겨서 실행
+    //REACTIVE: 제공자 API 호출은 논블로킹, DB 작업만 boundedElastic에서 실행
+    public Mono<LoginResponse> login(SocialProvider provider, String credential) {
+        return switch (loginConfig.getMode()) {
+            case BLOCKING -> Mono.fromCallable(() -> loginWith(provider, credential));
+            case VIRTUAL_THREADS -> Mono.fromCallable(() -> loginWith(provider, credential))
+                    .subscribeOn(loginScheduler);
+            case REACTIVE -> loginWithReactive(provider, credential);
+        };
+    }
 
-    //로그인 - 신규 게정이면 카카오 프로필을 불러와 DB에 채우고,
+    //로그인 - 신규 게정이면 제공자 프로필을 불러와 DB에 채우고,
     //기존 회원이면 DB에서 관련 프로필을 불러와서 응답
-    @Transactional
-    public LoginResponse loginWithKakao(String kakaoAccessToken) {
-        KakaoProfileDto info = fetchKakaoProfile(kakaoAccessToken);
-        if(info.getId()==null){
-            throw new ResponseStatusException(UNAUTHORIZED,"invalid kakao token");
+    //제공자 호출은 트랜잭션 밖에서 끝내고, DB 작업만 짧은 트랜잭션으로 묶는다.
+    //(느린 제공자 응답을 기다리는 동안 DB 커넥션을 잡고 있지 않도록)
+    public LoginResponse loginWith(SocialProvider provider, String credential) {
+        //타임아웃은 SocialHttpClient 쪽에 걸려 있으므로 block()이 무한정 기다리지 않는다.
+        return completeLogin(provider, fetchProfile(provider, credential).block());
+    }
+
+    public Mono<LoginResponse> loginWithReactive(SocialProvider provider, String credential) {
+        return fetchProfile(provider, credential)
+                .switchIfEmpty(Mono.error(() -> invalidCredential(provider)))
+                .publishOn(Schedulers.boundedElastic()) // JPA는 블로킹이므로 이벤트 루프 밖에서
+                .map(profile -> completeLogin(provider, profile));
+    }
+
+    //프로필을 받은 뒤의 DB 반영 + 토큰 발급
+    private LoginResponse completeLogin(SocialProvider provider, SocialProfile profile) {
+        if(profile==null || profile.id()==null){
+            throw invalidCredential(provider);
         }
+        LoginResponse response = transactionTemplate.execute(status -> saveLogin(profile));
+        authMetrics.login(response.isNew());
+        authEvents.publish(response.isNew() ? AuthEventType.LOGIN_NEW : AuthEventType.LOGIN_EXISTING,
+                response.getUser().getId(), provider, null);
+        return response;
+    }
 
-        //DB에 계정 있는지 조회
-        Optional<SocialAccount> optional = socialAccounts.findByProviderAndProviderId(SocialProvider.KAKAO,info.getId());
+    private LoginResponse saveLogin(SocialProfile profile) {
+        //DB에 계정 있는지 조회 - (provider, providerId) 유니크 인덱스 한 번, 유저까지 같이 가져온다.
+        Optional<SocialAccount> optional = socialAccounts.findWithUserByProviderAndProviderId(profile.provider(), profile.id());
         boolean newUser = optional.isEmpty();
 
-        //없으면 카카오 프로필 기반으로 신규 user 생성, 아니면 기존 DB에서 로드
+        //없으면 제공자 프로필 기반으로 신규 user 생성, 아니면 기존 DB에서 로드
         UserEntity userEntity;
         if(newUser){
-            //생성하면서 기본 닉네임과 프로필을 카카오에서 가져온다.
+            //생성하면서 기본 닉네임과 프로필을 제공자에서 가져온다.
             userEntity = users.save(UserEntity.builder()
-                    .email(info.getEmail())
-                    .nickname(info.getNickname())
-                    .profileImageUrl(info.getProfileImageUrl())
-                    .thumbnailImageUrl(info.getThumbnailImageUrl())
+                    .email(profile.email())
+                    .nickname(profile.nickname())
+                    .profileImageUrl(profile.profileImageUrl())
+                    .thumbnailImageUrl(profile.thumbnailImageUrl())
                     .build());
             socialAccounts.save(SocialAccount.builder()
-                    .provider(SocialProvider.KAKAO)
-                    .providerId(info.getId())
+                    .provider(profile.provider())
+                    .providerId(profile.id())
                     .userEntity(userEntity)
                     .build());
         }
@@ -82,21 +136,21 @@ public class AuthService {
             userEntity = optional.get().getUserEntity();
         }
 
-        String accessToken = tokenService.createAccess(userEntity.getId(), userEntity.getEmail(), userEntity.getNickname());
-        String refreshToken = tokenService.createRefresh(userEntity.getId());
-        Instant now = Instant.now();
-        refreshTokens.save(RefreshToken.builder()
-                .userEntity(userEntity)
-                .token(sha256(refreshToken))
-                .issuedAt(now)
-                .expiresAt(now.plusSeconds(jwtConfig.getRefreshTtlSeconds()))
-                .build());
+        //이 로그인(기기)의 세션 패밀리 - 이후 회전해도 같은 패밀리로 이어진다.
+        UUID familyId = UUID.randomUUID();
+        //신규 회원은 아직 패밀리가 없으므로 생략
+        if(!newUser){
+            evictOldFamilies(userEntity.getId());
+        }
+        String accessToken = tokenService.createAccess(userEntity.getId(), userEntity.getEmail(), userEntity.getNickname(), familyId);
+        String refreshToken = tokenService.createRefresh(userEntity.getId(), userEntity.getEmail(), userEntity.getNickname(), familyId);
+        issueRefreshToken(userEntity.getId(), familyId, refreshToken);
         LoginResponse.KakaoDto kakaoDto = new LoginResponse.KakaoDto();
-        //신규 유저일 경우 kakaoDto 포함
-        if(newUser){
+        //카카오로 신규 가입한 경우 kakaoDto 포함
+        if(newUser && profile.provider() == SocialProvider.KAKAO){
             kakaoDto = new LoginResponse.KakaoDto(
-                    info.getId(), info.getNickname(),
-                    info.getProfileImageUrl(), info.getThumbnailImageUrl()
+                    profile.id(), profile.nickname(),
+                    profile.profileImageUrl(), profile.thumbnailImageUrl()
             );
         }
         return new LoginResponse(
@@ -107,106 +161,261 @@ public class AuthService {
         );
     }
 
-    private String sha256(String s) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            return HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
-        } catch (Exception e){ throw new RuntimeException(e); }
+    //살아 있는 세션 패밀리를 (상한 - 1)개만 남기고 가장 오래된 것부터 폐기 -> 이번 로그인까지 합쳐 상한 개
+    //유저당 토큰 상태가 기기 수만큼으로 묶인다. 동시에 들어온 로그인끼리는 잠깐 상한을 넘을 수 있음 (다음 로그인에서 정리)
+    //폐기된 토큰은 RevocationFeed가 인덱스에 반영하고, db reissue 경로는 바로 거절
+    private void evictOldFamilies(Long userId) {
+        int max = refreshTokenConfig.getMaxFamiliesPerUser();
+        if (max <= 0) {
+            return;
+        }
+        long evicted = tokenStore.revokeFamiliesBeyond(userId, max - 1, Instant.now());
+        if (evicted > 0) {
+            authEvents.publish(AuthEventType.FAMILY_REVOKED, userId, null, "evicted");
+        }
     }
 
     //액세스 토큰만 재발급 하는 로직
-    public Map<String,Object> reissueAccessToken(String refreshToken){
+    public AccessTokenResponse reissueAccessToken(String refreshToken){
+        try {
+            AccessTokenResponse result = reissue(refreshToken);
+            authMetrics.refresh(AuthMetrics.RefreshOperation.REISSUE, AuthMetrics.RefreshOutcome.REISSUED);
+            return result;
+        } catch (ResponseStatusException e) {
+            authMetrics.refreshRejected(AuthMetrics.RefreshOperation.REISSUE, e);
+            authEvents.publish(AuthEventType.REFRESH_REJECTED, null, null, e.getReason());
+            throw e;
+        }
+    }
+
+    private AccessTokenResponse reissue(String refreshToken){
         if(refreshToken==null || refreshToken.isBlank()){
             throw new ResponseStatusException(UNAUTHORIZED,"invalid refresh token");
         }
-        Claims claims = tokenService.parseAndValidate(refreshToken);
+        Claims claims = tokenService.parseRefresh(refreshToken);
         Long userId = claims.get("uid", Long.class);
+        UUID familyId = tokenService.familyId(claims);
 
         //예외처리
-        UserEntity userEntity = users.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED,"user not found"));
-        RefreshToken rt = refreshTokens.findByUserEntityAndToken(userEntity,sha256(refreshToken))
-                .orElseThrow(()-> new ResponseStatusException(UNAUTHORIZED, "refreshToken not found"));
-        if (rt.getExpiresAt().isBefore(Instant.now()))
+        //폐기된 걸로 알고 있는 토큰/패밀리는 DB 조회 없이 바로 거절
+        byte[] hash = tokenHasher.hash(refreshToken);
+        if (revocationIndex.lookup(hash) == RevocationIndex.State.REVOKED || revocationIndex.isFamilyRevoked(familyId))
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh revoked");
+
+        //trusted 모드: 서명 + 만료는 위에서 검증됨, 폐기 여부는 인덱스(최대 max-staleness 지연)로 확인 -> DB 조회 없음
+        //feed가 늦었거나 email/name 클레임이 없는 이전 토큰이면 아래 DB 경로
+        if (reissueConfig.getMode() == ReissueConfig.Mode.TRUSTED && revocationFeed.isFresh()
+                && (claims.containsKey("email") || claims.containsKey("name"))) {
+            authMetrics.reissuePath(true);
+            return new AccessTokenResponse(
+                    tokenService.createAccess(userId, claims.get("email", String.class), claims.get("name", String.class), familyId),
+                    jwtConfig.getAccessTtlSeconds());
+        }
+        authMetrics.reissuePath(false);
+        TokenState rt = loadRefreshToken(userId, hash);
+        if (rt.expiresAt().isBefore(Instant.now()))
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh expired");
-        if (rt.getRevokedAt() != null)
+        if (rt.revokedAt() != null)
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh revoked");
+        UserSummary user = loadUser(userId);
 
         //새 Access Token 발급
-        String newAccessToken = tokenService.createAccess(userEntity.getId(), userEntity.getEmail(), userEntity.getNickname());
+        String newAccessToken = tokenService.createAccess(user.id(), user.email(), user.nickname(), rt.familyId());
 
-        return Map.of(
-                "accessToken",newAccessToken,
-                "accessTtlSec",jwtConfig.getAccessTtlSeconds()
-        );
+        return new AccessTokenResponse(newAccessToken, jwtConfig.getAccessTtlSeconds());
     }
 
     //리프레시 토큰 재발급 로직 -> 동시에 액세스 토큰도 재발급
-    public Map<String,Object> refresh(String refreshToken){
+    public TokenPairResponse refresh(String refreshToken){
+        try {
+            TokenPairResponse result = refreshPair(refreshToken);
+            authMetrics.refresh(AuthMetrics.RefreshOperation.REFRESH, AuthMetrics.RefreshOutcome.ROTATED);
+            return result;
+        } catch (ResponseStatusException e) {
+            authMetrics.refreshRejected(AuthMetrics.RefreshOperation.REFRESH, e);
+            authEvents.publish(AuthEventType.REFRESH_REJECTED, null, null, e.getReason());
+            throw e;
+        }
+    }
+
+    private TokenPairResponse refreshPair(String refreshToken){
         if(refreshToken==null || refreshToken.isBlank()){
             throw new ResponseStatusException(UNAUTHORIZED,"invalid refresh token");
         }
-        Claims claims = tokenService.parseAndValidate(refreshToken);
+        Claims claims = tokenService.parseRefresh(refreshToken);
         Long userId = claims.get("uid", Long.class);
+        UUID familyId = tokenService.familyId(claims);
 
         //예외처리
-        UserEntity userEntity = users.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED,"user not found"));
-        RefreshToken rt = refreshTokens.findByUserEntityAndToken(userEntity,sha256(refreshToken))
-                .orElseThrow(()-> new ResponseStatusException(UNAUTHORIZED, "refreshToken not found"));
-        if (rt.getRotatedAt()!=null)
+        //이미 회전/폐기된 걸로 알고 있는 토큰(재전송, 오래된 토큰)은 DB 조회 없이 바로 거절
+        byte[] hash = tokenHasher.hash(refreshToken);
+        RevocationIndex.State known = revocationIndex.lookup(hash);
+        if (known == RevocationIndex.State.REVOKED || revocationIndex.isFamilyRevoked(familyId))
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh revoked");
+        if (known == RevocationIndex.State.ROTATED) {
+            revokeFamilyOnReuse(userId, familyId);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh already rotated");
+        }
+
+        //같은 토큰으로 동시에 들어온 요청은 먼저 온 하나만 회전시키고, 나머지는 그 결과(새 토큰 쌍)를 같이 받는다.
+        return refreshFlights.execute(ByteBuffer.wrap(hash), () -> rotate(userId, hash));
+    }
+
+    //회전은 한 트랜잭션 안에서: 기존 토큰 회전 기록(저장소의 compare-and-set) + 새 토큰 발급
+    //다른 노드 등에서 먼저 회전시켰다면 CAS가 실패 -> 이미 회전된 토큰으로 처리
+    private TokenPairResponse rotate(Long userId, byte[] hash) {
+        TokenState rt = loadRefreshToken(userId, hash);
+        if (rt.revokedAt()!=null)
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh revoked");
+        if (rt.rotatedAt()!=null) {
+            revokeFamilyOnReuse(userId, rt.familyId());
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh already rotated");
-        if (rt.getExpiresAt().isBefore(Instant.now()))
+        }
+        if (rt.expiresAt().isBefore(Instant.now()))
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh already expired");
+        UserSummary user = loadUser(userId);
+        //fid가 없는 이전 토큰은 이번 회전부터 새 패밀리로
+        UUID familyId = rt.familyId() != null ? rt.familyId() : UUID.randomUUID();
 
-        rt.rotate(Instant.now());
-        refreshTokens.save(rt);
-
-        String newAccessToken =  tokenService.createAccess(userEntity.getId(), userEntity.getEmail(), userEntity.getNickname());
-        String newRefreshToken = tokenService.createRefresh(userEntity.getId());
-        refreshTokens.save(RefreshToken.builder()
-                .userEntity(userEntity)
-                .token(sha256(newRefreshToken))
-                .issuedAt(Instant.now())
-                .expiresAt(Instant.now().plusSeconds(jwtConfig.getRefreshTtlSeconds()))
-                .build());
-        return Map.of(
-                "accessToken",newAccessToken,
-                "refreshToken",newRefreshToken,
-                "accessTtlSec",jwtConfig.getAccessTtlSeconds(),
-                "refreshTtlSec",jwtConfig.getRefreshTtlSeconds()
-        );
+        TokenPairResponse result = transactionTemplate.execute(status -> {
+            //CAS 실패는 다른 노드와 동시에 회전한 경우라 재사용으로 보지 않는다.
+            if (!tokenStore.rotate(hash, Instant.now()))
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "refresh already rotated");
+            String newAccessToken =  tokenService.createAccess(user.id(), user.email(), user.nickname(), familyId);
+            String newRefreshToken = tokenService.createRefresh(user.id(), user.email(), user.nickname(), familyId);
+            issueRefreshToken(user.id(), familyId, newRefreshToken);
+            return new TokenPairResponse(newAccessToken, newRefreshToken,
+                    jwtConfig.getAccessTtlSeconds(), jwtConfig.getRefreshTtlSeconds());
+        });
+        //커밋이 성공한 뒤에만 인덱스에 반영
+        revocationIndex.markRotated(hash, rt.expiresAt());
+        //같은 토큰으로 동시에 들어온 요청들은 이 회전 하나를 같이 받으므로 이벤트도 한 번만
+        authEvents.publish(AuthEventType.REFRESH_ROTATED, user.id(), null, null);
+        return result;
+    }
+
+    //이미 회전된 토큰이 다시 들어옴 = 토큰이 탈취되어 두 곳에서 쓰이고 있을 수 있음
+    //-> 어느 쪽이 정상 사용자인지 모르므로 그 패밀리(기기 세션) 전체를 UPDATE 한 번으로 폐기 (fid 없는 이전 토큰은 거절만)
+    private void revokeFamilyOnReuse(Long userId, UUID familyId) {
+        if (userId == null || familyId == null) {
+            return;
+        }
+        revokeFamily(userId, familyId);
+        authEvents.publish(AuthEventType.FAMILY_REVOKED, userId, null, "reuse");
+    }
+
+    //저장소 폐기 + 이 노드의 인덱스에 패밀리 단위로 바로 반영 (다른 노드는 RevocationFeed로)
+    private void revokeFamily(Long userId, UUID familyId) {
+        Instant now = Instant.now();
+        tokenStore.revokeFamily(userId, familyId, now);
+        revocationIndex.markFamilyRevoked(familyId, now.plusSeconds(jwtConfig.getRefreshTtlSeconds()));
+    }
+
+    private void issueRefreshToken(Long userId, UUID familyId, String refreshToken) {
+        Instant now = Instant.now();
+        tokenStore.issue(TokenState.issued(userId, familyId, tokenHasher.hash(refreshToken),
+                now, now.plusSeconds(jwtConfig.getRefreshTtlSeconds())));
+    }
+
+    //토큰 해시로 토큰 상태 조회
+    //JWT의 uid와 실제 소유자가 다르면 없는 토큰으로 취급
+    private TokenState loadRefreshToken(Long userId, byte[] hash) {
+        TokenState rt = tokenStore.findByHash(hash)
+                .orElseThrow(()-> new ResponseStatusException(UNAUTHORIZED, "refreshToken not found"));
+        if (userId == null || rt.userId() != userId)
+            throw new ResponseStatusException(UNAUTHORIZED, "refreshToken not found");
+        return rt;
+    }
+
+    //액세스 토큰에 넣을 id/email/nickname만 필요 -> 자주 쓰는 유저는 캐시에서 바로, 없으면 3개 컬럼만 조회
+    private UserSummary loadUser(Long userId) {
+        if (userId == null)
+            throw new ResponseStatusException(UNAUTHORIZED, "user not found");
+        return userSummaryCache.get(userId, users::findSummaryById)
+                .orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED, "user not found"));
+    }
+
+    //로그아웃 - 이 기기의 세션 패밀리(액세스 토큰의 fid) 전체 폐기 (UPDATE 한 번)
+    //fid가 없는 이전 액세스 토큰이면 기존처럼 가장 최근 토큰만 폐기
+    public StatusResponse logout(Long userId, UUID familyId){
+        loadUser(userId);
+        if (familyId == null) {
+            tokenStore.revokeLatest(userId, Instant.now())
+                    .ifPresent(revoked -> revocationIndex.markRevoked(revoked.hash(), revoked.expiresAt()));
+        } else {
+            revokeFamily(userId, familyId);
+        }
+        authEvents.publish(AuthEventType.LOGOUT, userId, null, null);
+        return StatusResponse.OK;
+    }
+
+    //모든 기기에서 로그아웃 - 유저의 모든 리프레시 토큰 폐기 (대상 조회 + UPDATE 한 번)
+    //logout과 같이 이 노드의 인덱스에는 토큰/패밀리 단위로 바로 반영 (다른 노드는 RevocationFeed로, 최대 max-staleness)
+    public StatusResponse logoutAll(Long userId){
+        loadUser(userId);
+        Instant now = Instant.now();
+        Instant familyExpiresAt = now.plusSeconds(jwtConfig.getRefreshTtlSeconds());
+        for (TokenState revoked : tokenStore.revokeAll(userId, now)) {
+            revocationIndex.markRevoked(revoked.hash(), revoked.expiresAt());
+            if (revoked.familyId() != null) {
+                revocationIndex.markFamilyRevoked(revoked.familyId(), familyExpiresAt);
+            }
+        }
+        authEvents.publish(AuthEventType.LOGOUT, userId, null, "all");
+        return StatusResponse.OK;
+    }
+
+    //계정 연동 - 로그인한 유저에 다른 소셜 계정들을 붙인다. (SocialAccount 여러 개 -> UserEntity 하나)
+    //제공자 프로필 조회는 한꺼번에 병렬로 보내고, 다 모이면 한 트랜잭션에서 저장
+    public Mono<StatusResponse> link(Long userId, Map<SocialProvider, String> credentials) {
+        if (credentials == null || credentials.isEmpty()) {
+            return Mono.error(new ResponseStatusException(BAD_REQUEST, "nothing to link"));
+        }
+        loadUser(userId);
+        return Flux.fromIterable(credentials.entrySet())
+                .flatMap(c -> fetchProfile(c.getKey(), c.getValue())
+                        .switchIfEmpty(Mono.error(() -> invalidCredential(c.getKey()))))
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .map(profiles -> {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> saveLinks(userId, profiles));
+                    } catch (DataIntegrityViolationException e) {
+                        //동시에 같은 계정을 다른 유저가 연동한 경우 (유니크 인덱스 위반)
+                        throw new ResponseStatusException(CONFLICT, "social account already linked");
+                    }
+                    return new StatusResponse("linked");
+                });
+    }
+
+    private void saveLinks(Long userId, List<SocialProfile> profiles) {
+        for (SocialProfile profile : profiles) {
+            if (profile.id() == null) {
+                throw invalidCredential(profile.provider());
+            }
+            Optional<SocialAccount> existing = socialAccounts.findWithUserByProviderAndProviderId(profile.provider(), profile.id());
+            if (existing.isPresent()) {
+                if (!existing.get().getUserEntity().getId().equals(userId)) {
+                    throw new ResponseStatusException(CONFLICT, "social account already linked");
+                }
+                continue; // 이미 이 유저에 연동됨
+            }
+            socialAccounts.save(SocialAccount.builder()
+                    .provider(profile.provider())
+                    .providerId(profile.id())
+                    .userEntity(users.getReferenceById(userId)) // FK만 필요 -> 유저 select 없음
+                    .build());
+        }
+        socialAccounts.flush(); // 유니크 위반을 커밋 전에 여기서 터뜨려 409로 바꾸기 위함
+    }
+
+    //같은 토큰으로 짧은 시간 안에 다시 들어온 요청은 캐시에서 바로 응답
+    private Mono<SocialProfile> fetchProfile(SocialProvider provider, String credential) {
+        return socialProfileCache.get(provider, credential,
+                () -> socialProfileClients.get(provider).fetchProfile(credential));
+    }
+
+    private static ResponseStatusException invalidCredential(SocialProvider provider) {
+        return new ResponseStatusException(UNAUTHORIZED, "invalid " + provider.name().toLowerCase(Locale.ROOT) + " token");
     }
-    //로그아웃 시 리프레시 토큰 만료
-    public Map<String,String> logout(Long userId){
-        UserEntity u = users.findById(userId).orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED, "user not found"));
-        refreshTokens.findTopByUserEntityOrderByIssuedAtDesc(u)
-                .ifPresent(refreshToken -> {refreshToken.revoke(Instant.now());refreshTokens.save(refreshToken);});
-        return Map.of("status","ok");
-    }
-
-    //JsonNode - DTO 없이도 중첩 JSON을 안전하게 한 줄로 뽑아내는 도구.
-    //액세스 토큰을 기반으로 유저 정보를 뽑아내는 토큰
-    private KakaoProfileDto fetchKakaoProfile(String kakaoAccessToken) {
-       JsonNode n = webClientBuilder.build()
-               .get().uri(kakaoUserinfoUri) // HTTP GET 요청 설정, 요청 URL 설정
-               .headers(h -> h.setBearerAuth(kakaoAccessToken)) // Bearer 토큰 인증 헤더 설정
-               .accept(MediaType.APPLICATION_JSON) // Accept 헤더를 application/json으로 설정
-               .retrieve() // 응답 받기 시작
-               .onStatus(HttpStatusCode::isError, resp -> // 에러 상태 코드(4xx, 5xx) 처리
-                       resp.bodyToMono(String.class)
-                               .defaultIfEmpty("")
-                               .flatMap(body -> Mono.error(new ResponseStatusException(
-                                       resp.statusCode(), "kakao userinfo error: " + body))))
-               .bodyToMono(JsonNode.class) // 응답 본문을 JsonNode로 변환
-               .block(); // 비동기 결과를 동기적으로 기다림
-       KakaoProfileDto dto = new KakaoProfileDto();
-       //자세한 사항은 예제 참조 - https://developers.kakao.com/docs/latest/ko/kakaologin/rest-api#req-user-info-sample
-       dto.setId(n.path("id").asText(null));
-       dto.setEmail(n.at("/kakao_account/email").asText(null));
-       dto.setNickname(n.at("/kakao_account/profile/nickname").asText(null));
-       dto.setProfileImageUrl(n.at("/kakao_account/profile/profile_image_url").asText(null));
-       dto.setThumbnailImageUrl(n.at("/kakao_account/profile/thumbnail_image_url").asText(null));
-       return dto;
-   }
 }
@@ -0,0 +1,47 @@
+package hello.hackathon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+//IDENTITY -> SEQUENCE 전환 후 기존 DB 맞추기
+//ddl-auto: update로 새로 생긴 시퀀스는 1부터 시작하므로, 이미 IDENTITY로 쌓인 id와 겹치지 않게
+//시퀀스가 max(id)보다 뒤에 있으면 max(id) + allocationSize로 다시 시작시킨다.
+//웹 서버가 요청을 받기 전에 끝나야 한다. (그 전에 들어온 로그인이 맞추기 전 시퀀스로 id를 받아 PK 충돌이 나지 않도록)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.schema.align-id-sequences", havingValue = "true", matchIfMissing = true)
+public class IdSequenceAlignment implements SmartInitializingSingleton {
+    private static final int ALLOCATION_SIZE = 50; // 엔티티의 @SequenceGenerator allocationSize와 같아야 함
+
+    //테이블 -> 시퀀스
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "user_entity", "user_entity_seq",
+            "social_account", "social_account_seq",
+            "refresh_token", "refresh_token_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        //pooled 옵티마이저는 시퀀스 값을 블록의 끝으로 쓰므로 한 번 꺼내 쓰는 건 블록 하나를 버리는 것뿐
+        Long next = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        if (maxId == null || next == null || next - ALLOCATION_SIZE >= maxId) {
+            return;
+        }
+        long restart = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + restart);
+        log.info("aligned {} to restart with {} (max id of {} = {})", sequence, restart, table, maxId);
+    }
+}
@@ -0,0 +1,196 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.JwtConfig;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+//JWT 서명/검증 키 모음
+//HS256: app.jwt.secret 하나
+//ES256: app.jwt.keys 의 키 링 (kid 헤더로 검증 키를 고름) + /.well-known/jwks.json 으로 공개키 게시
+@Slf4j
+@Component
+public class JwtKeyRing {
+    public record SigningKey(String kid, PrivateKey privateKey, ECPublicKey publicKey, Instant notBefore, Instant notAfter) {
+        boolean signsAt(Instant now) {
+            return privateKey != null
+                    && (notBefore == null || !now.isBefore(notBefore))
+                    && (notAfter == null || now.isBefore(notAfter));
+        }
+    }
+
+    private final JwtConfig jwtConfig;
+    private SecretKey hmacKey;
+    private List<SigningKey> keys = List.of();
+    private Map<String, SigningKey> byKid = Map.of();
+
+    public JwtKeyRing(JwtConfig jwtConfig) {
+        this.jwtConfig = jwtConfig;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (jwtConfig.getSecret() != null && !jwtConfig.getSecret().isBlank()) {
+            //시크릿 키가 16진수 문자열이므로 32비트 문자열이 되도록 수정
+            hmacKey = Keys.hmacShaKeyFor(HexFormat.of().parseHex(jwtConfig.getSecret()));
+        }
+        if (!isAsymmetric()) {
+            if (hmacKey == null) {
+                throw new IllegalStateException("app.jwt.secret is required for HS256");
+            }
+            return;
+        }
+        List<SigningKey> loaded = new ArrayList<>();
+        for (JwtConfig.SigningKey k : jwtConfig.getKeys()) {
+            loaded.add(new SigningKey(k.getKid(),
+                    k.getPrivateKey() == null ? null : parsePrivate(k.getPrivateKey()),
+                    parsePublic(k.getPublicKey()), k.getNotBefore(), k.getNotAfter()));
+        }
+        if (loaded.isEmpty()) {
+            //개발용: 키를 설정하지 않으면 임시 키 생성 (재시작하면 기존 토큰은 전부 무효, 다른 노드와 공유 안 됨)
+            KeyPair pair = generate();
+            loaded.add(new SigningKey("ephemeral-" + UUID.randomUUID(), pair.getPrivate(),
+                    (ECPublicKey) pair.getPublic(), null, null));
+            log.warn("app.jwt.keys is empty; signing with an ephemeral ES256 key");
+        }
+        Map<String, SigningKey> index = new LinkedHashMap<>();
+        for (SigningKey k : loaded) {
+            if (index.put(k.kid(), k) != null) {
+                throw new IllegalStateException("duplicate kid in app.jwt.keys: " + k.kid());
+            }
+        }
+        keys = List.copyOf(loaded);
+        byKid = Map.copyOf(index);
+    }
+
+    public boolean isAsymmetric() {
+        return jwtConfig.getAlgorithm() == JwtConfig.Algorithm.ES256;
+    }
+
+    public SecretKey hmacKey() {
+        return hmacKey;
+    }
+
+    //지금 서명에 쓸 키 - 구간이 겹치면 notBefore가 가장 늦은(=가장 새) 키
+    public SigningKey signingKey(Instant now) {
+        SigningKey current = null;
+        for (SigningKey k : keys) {
+            if (k.signsAt(now) && (current == null || notBeforeOf(k).isAfter(notBeforeOf(current)))) {
+                current = k;
+            }
+        }
+        if (current == null) {
+            throw new IllegalStateException("no JWT signing key is valid at " + now);
+        }
+        return current;
+    }
+
+    //JWS 헤더의 kid/alg로 검증 키 선택
+    //kid 없는 HS256 토큰은 HS256 모드이거나 accept-legacy-hmac일 때만 secret으로 검증
+    public Key verificationKey(String kid, String alg, Instant now) {
+        if (kid == null) {
+            if (SignatureAlgorithm.HS256.getValue().equals(alg) && hmacKey != null
+                    && (!isAsymmetric() || jwtConfig.isAcceptLegacyHmac())) {
+                return hmacKey;
+            }
+            throw new UnsupportedJwtException("missing kid");
+        }
+        SigningKey k = byKid.get(kid);
+        if (k == null || !SignatureAlgorithm.ES256.getValue().equals(alg) || !published(k, now)) {
+            throw new UnsupportedJwtException("unknown kid");
+        }
+        return k.publicKey();
+    }
+
+    //JWK Set (RFC 7517) - 서명 중이거나, 앞으로 서명할, 또는 그 키로 서명한 토큰이 아직 살아 있을 수 있는 키
+    public Map<String, Object> jwks(Instant now) {
+        List<Map<String, String>> published = new ArrayList<>();
+        for (SigningKey k : keys) {
+            if (!published(k, now)) {
+                continue;
+            }
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", k.kid());
+            jwk.put("x", coordinate(k.publicKey().getW().getAffineX()));
+            jwk.put("y", coordinate(k.publicKey().getW().getAffineY()));
+            published.add(jwk);
+        }
+        return Map.of("keys", published);
+    }
+
+    private boolean published(SigningKey k, Instant now) {
+        return k.notAfter() == null || now.isBefore(k.notAfter().plusSeconds(jwtConfig.getRefreshTtlSeconds()));
+    }
+
+    private static Instant notBeforeOf(SigningKey k) {
+        return k.notBefore() == null ? Instant.MIN : k.notBefore();
+    }
+
+    //P-256 좌표는 32바이트 고정 길이 big-endian (BigInteger 부호 바이트 제거 / 앞쪽 0 채움)
+    private static String coordinate(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int copy = Math.min(raw.length, 32);
+        System.arraycopy(raw, raw.length - copy, fixed, 32 - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static PrivateKey parsePrivate(String pem) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("invalid EC private key in app.jwt.keys", e);
+        }
+    }
+
+    private static ECPublicKey parsePublic(String pem) {
+        try {
+            return (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException | RuntimeException e) {
+            throw new IllegalStateException("invalid EC public key in app.jwt.keys", e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    private static KeyPair generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HexFormat;
+import java.util.List;
+
+//리프레시 토큰 해시 저장 형식 마이그레이션
+//이전: refresh_token.token       VARCHAR  (SHA-256 hex 64자)
+//이후: refresh_token.token_hash  VARBINARY(32)
+//ddl-auto: update는 새 컬럼만 추가하고 기존 값은 옮겨주지 않으므로, 시작할 때 남은 행을 id 순서대로 나눠서 옮긴다.
+//옮긴 뒤에는 `alter table refresh_token drop column token` 으로 이전 컬럼을 지우면 된다.
+//이전 형식은 jti가 없어서 같은 유저가 같은 초에 받은 토큰은 값이 같다. (token에는 unique가 없었음)
+//그대로 옮기면 ux_refresh_token_hash에 걸려 시작이 멈추므로, 먼저 값마다 가장 최근 행(id 최대)만 남기고 지운다.
+//(같은 JWT라 어느 행으로 검증해도 결과가 같고, 최근 행이 회전/폐기 상태를 가장 늦게 반영한다.)
+//웹 서버가 요청을 받기 전에 끝나야 한다. (옮기는 중에 들어온 refresh/reissue가 token_hash null -> 401로 로그아웃되지 않도록)
+//-> ApplicationRunner(서버 시작 후)가 아니라 모든 빈 생성 직후, 내장 서버 시작(finishRefresh) 전에 실행
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenHashMigration implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshTokenConfig refreshTokenConfig;
+
+    private record LegacyRow(long id, String hex) {}
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!refreshTokenConfig.isMigrateLegacyHash() || !legacyColumnExists()) {
+            return;
+        }
+        int duplicates = deleteDuplicateLegacyRows();
+        if (duplicates > 0) {
+            log.info("deleted {} refresh tokens sharing a legacy token value with a newer row", duplicates);
+        }
+        HexFormat hex = HexFormat.of();
+        long lastId = 0;
+        long migrated = 0;
+        while (true) {
+            List<LegacyRow> rows = jdbcTemplate.query(
+                    "select id, token from refresh_token where id > ? and token is not null and token_hash is null order by id limit ?",
+                    (rs, i) -> new LegacyRow(rs.getLong(1), rs.getString(2)),
+                    lastId, refreshTokenConfig.getMigrationBatchSize());
+            if (rows.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate("update refresh_token set token_hash = ? where id = ?",
+                    rows, rows.size(), (ps, row) -> {
+                        ps.setBytes(1, hex.parseHex(row.hex()));
+                        ps.setLong(2, row.id());
+                    });
+            lastId = rows.get(rows.size() - 1).id();
+            migrated += rows.size();
+        }
+        if (migrated > 0) {
+            log.info("migrated {} refresh tokens from hex token column to token_hash", migrated);
+        }
+    }
+
+    //옮길 행이 남아 있을 때만 전체를 한 번 묶어 본다. (이미 옮긴 행과 값이 겹치는 경우도 여기서 정리)
+    private int deleteDuplicateLegacyRows() {
+        Integer pending = jdbcTemplate.queryForObject(
+                "select count(*) from refresh_token where token is not null and token_hash is null", Integer.class);
+        if (pending == null || pending == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+                "delete from refresh_token where token is not null and id not in "
+                        + "(select max(id) from refresh_token where token is not null group by token)");
+    }
+
+    private boolean legacyColumnExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.columns where upper(table_name) = 'REFRESH_TOKEN' and upper(column_name) = 'TOKEN'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
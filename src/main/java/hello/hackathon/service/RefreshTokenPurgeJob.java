@@ -0,0 +1,62 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.JwtConfig;
+import hello.hackathon.config.RefreshTokenConfig;
+import hello.hackathon.config.ReissueConfig;
+import hello.hackathon.store.TokenStateStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+//만료/회전/폐기된 리프레시 토큰 행 정리
+//로그인/회전마다 행이 하나씩 쌓이는데 지우는 곳이 없어서 테이블이 계속 커짐
+//-> 주기적으로 batch-size씩 끊어서 삭제 (한 번에 테이블을 오래 잠그지 않도록, 방식은 TokenStateStore 구현에 맡김)
+//회전된 행은 모드와 관계없이 JWT가 만료될 때까지 남긴다. (TokenState.isPurgeable)
+//  - 지운 회전 토큰이 재사용되면 패밀리 폐기 없이 not found로만 끝남
+//trusted reissue 모드에서는 폐기된 행도 만료까지 남긴다. (grace를 refresh TTL 이상으로)
+//  - 지운 뒤 재시작하면 RevocationIndex 재구성에서 빠져서, 폐기된 토큰이 서명만으로 다시 통과함
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.refresh-token.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RefreshTokenPurgeJob {
+    private final TokenStateStore tokenStore;
+    private final RefreshTokenConfig refreshTokenConfig;
+    private final ReissueConfig reissueConfig;
+    private final JwtConfig jwtConfig;
+    private final AuthMetrics authMetrics;
+
+    public record PurgeResult(long purged, Duration took) {}
+
+    @Scheduled(initialDelayString = "${app.refresh-token.purge.interval-seconds:600}",
+            fixedDelayString = "${app.refresh-token.purge.interval-seconds:600}",
+            timeUnit = TimeUnit.SECONDS)
+    public void run() {
+        purge(Instant.now());
+    }
+
+    public PurgeResult purge(Instant now) {
+        RefreshTokenConfig.Purge config = refreshTokenConfig.getPurge();
+        Instant cutoff = now.minusSeconds(graceSeconds());
+        long started = System.nanoTime();
+        long purged = tokenStore.purge(cutoff, config.getBatchSize(), config.getMaxBatchesPerRun());
+        PurgeResult result = new PurgeResult(purged, Duration.ofNanos(System.nanoTime() - started));
+        authMetrics.purge(result.purged(), result.took());
+        log.info("refresh token purge: {} rows in {} ms", result.purged(), result.took().toMillis());
+        return result;
+    }
+
+    private long graceSeconds() {
+        long grace = refreshTokenConfig.getPurge().getGraceSeconds();
+        if (reissueConfig.getMode() == ReissueConfig.Mode.TRUSTED) {
+            return Math.max(grace, jwtConfig.getRefreshTtlSeconds());
+        }
+        return grace;
+    }
+}
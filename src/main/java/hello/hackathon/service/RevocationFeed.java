@@ -0,0 +1,93 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.ReissueConfig;
+import hello.hackathon.store.TokenStateStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+//trusted reissue 모드용 (app.reissue.mode=trusted일 때만 폴링): 다른 노드에서 회전/폐기한 토큰을 주기적으로 저장소에서 읽어 RevocationIndex에 반영
+//(이 노드에서 회전/폐기한 토큰은 AuthService가 바로 인덱스에 넣는다.)
+//
+//마지막 폴링 시작 시각 - overlap 이후에 바뀐 토큰만 읽으므로 한 번에 읽는 양은 그 사이 회전/폐기 수에 비례
+//RevocationIndexLoader가 시작 시 전체 재구성을 끝내기 전에는 폴링이 성공했어도 isFresh() = false
+//(폴링은 최근 변경분만 읽으므로 그보다 오래된 회전/폐기는 재구성 전까지 인덱스에 없다.)
+//마지막 성공 이후 max-staleness-millis가 지났거나 인덱스가 가득 차서 넣지 못한 토큰이 생기면 isFresh() = false
+//(후자는 RevocationIndexLoader가 다시 채운 뒤 markIndexRebuilt()로 돌아온다.)
+//-> AuthService는 DB 확인 경로로 돌아간다.
+@Slf4j
+@Component
+public class RevocationFeed implements MeterBinder {
+    private final TokenStateStore tokenStore;
+    private final RevocationIndex revocationIndex;
+    private final ReissueConfig reissueConfig;
+    //이 시각까지의 회전/폐기는 인덱스에 반영됨 (성공한 폴링의 시작 시각)
+    private volatile Instant syncedUpTo;
+    //RevocationIndexLoader.rebuild()가 끝났는지
+    private volatile boolean indexRebuilt;
+
+    public RevocationFeed(TokenStateStore tokenStore, RevocationIndex revocationIndex, ReissueConfig reissueConfig) {
+        this.tokenStore = tokenStore;
+        this.revocationIndex = revocationIndex;
+        this.reissueConfig = reissueConfig;
+        //시작 전 상태는 RevocationIndexLoader가 전부 채운다. 첫 폴링이 성공하기 전까지는 DB 경로.
+        this.syncedUpTo = Instant.EPOCH;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reissue.feed-poll-millis:1000}", timeUnit = TimeUnit.MILLISECONDS)
+    public void poll() {
+        if (reissueConfig.getMode() != ReissueConfig.Mode.TRUSTED) {
+            return;
+        }
+        Instant started = Instant.now();
+        Instant since = syncedUpTo.equals(Instant.EPOCH)
+                ? started.minusMillis(reissueConfig.getMaxStalenessMillis() + reissueConfig.getFeedOverlapMillis())
+                : syncedUpTo.minusMillis(reissueConfig.getFeedOverlapMillis());
+        try {
+            tokenStore.forEachInactiveSince(since, started, state -> {
+                if (state.revokedAt() != null) {
+                    revocationIndex.markRevoked(state.hash(), state.expiresAt());
+                } else {
+                    revocationIndex.markRotated(state.hash(), state.expiresAt());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("revocation feed poll failed (trusted reissue falls back to DB after max staleness)", e);
+            return;
+        }
+        syncedUpTo = started;
+    }
+
+    void markIndexRebuilt() {
+        indexRebuilt = true;
+    }
+
+    //다시 채우는 동안은 인덱스를 믿지 않는다
+    void markIndexRebuilding() {
+        indexRebuilt = false;
+    }
+
+    //폐기 인덱스를 믿어도 되는 상태인지 (마지막 재구성 이후 인덱스에 못 넣은 토큰이 있으면 false)
+    public boolean isFresh() {
+        if (!indexRebuilt || !revocationIndex.isEnabled() || !revocationIndex.isComplete()) {
+            return false;
+        }
+        return Duration.between(syncedUpTo, Instant.now()).toMillis() <= reissueConfig.getMaxStalenessMillis();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.revocation_feed.staleness", this,
+                        feed -> Duration.between(feed.syncedUpTo, Instant.now()).toMillis() / 1000.0)
+                .description("Seconds since the last successful revocation feed poll")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
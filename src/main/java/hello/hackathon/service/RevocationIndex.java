@@ -0,0 +1,251 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//회전/폐기된 리프레시 토큰 해시를 들고 있는 인메모리 인덱스
+//여기 있는 토큰은 DB를 읽지 않고 바로 거절하고, 모르는 토큰(=아마 유효한 토큰)만 DB에서 확인한다.
+//
+//- 키: SHA-256 해시 앞 16바이트 (long 2개) -> 충돌 확률은 무시할 수준
+//  폐기된 세션 패밀리도 같은 테이블에 UUID(long 2개)를 키로 넣는다. (패밀리 전체 폐기를 토큰 해시 없이 바로 반영)
+//- 저장: 원시 배열 기반 open addressing 해시 테이블 (엔트리당 객체 할당 없음)
+//- 크기: capacity에서 시작. 가득 차면 이미 만료된 엔트리를 비워내고, 그래도 꽉 차 있으면 max-capacity까지 두 배로 늘린다.
+//  max-capacity에서도 꽉 차 있으면 더 넣지 않고 isComplete() = false (넣지 못한 토큰은 DB에서 확인하므로 정확성에는 영향 없음)
+//  -> RevocationIndexLoader가 DB에서 다시 채워서 (그 사이 만료된 엔트리가 비워지면) 원래 상태로 돌린다.
+@Slf4j
+@Component
+public class RevocationIndex implements MeterBinder {
+    public enum State { ROTATED, REVOKED }
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final byte EMPTY = 0;
+    private static final byte ROTATED = 1;
+    private static final byte REVOKED = 2; // 폐기가 회전보다 우선
+
+    private final boolean enabled;
+    private final int maxCapacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong overflow = new AtomicLong();
+    //마지막 beginRebuild() 이후 넣지 못한 토큰이 있는지
+    private volatile boolean incomplete;
+
+    private long[] keyHi;
+    private long[] keyLo;
+    private long[] expiresAt; // epoch seconds
+    private byte[] states;
+    private int mask;
+    private int size;
+    private int capacity;
+
+    public RevocationIndex(RefreshTokenConfig refreshTokenConfig) {
+        RefreshTokenConfig.RevocationIndex config = refreshTokenConfig.getRevocationIndex();
+        this.enabled = config.isEnabled();
+        this.capacity = config.getCapacity();
+        this.maxCapacity = Math.max(capacity, config.getMaxCapacity());
+        allocate(enabled ? tableSizeFor(capacity) : 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    //모르는 토큰이면 null
+    public State lookup(byte[] hash) {
+        if (!enabled) {
+            return null;
+        }
+        long hi = (long) LONG_VIEW.get(hash, 0);
+        long lo = (long) LONG_VIEW.get(hash, 8);
+        lock.readLock().lock();
+        try {
+            int slot = find(hi, lo);
+            if (slot < 0) {
+                return null;
+            }
+            return states[slot] == REVOKED ? State.REVOKED : State.ROTATED;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void markRotated(byte[] hash, Instant tokenExpiresAt) {
+        put(hash, tokenExpiresAt, ROTATED);
+    }
+
+    public void markRevoked(byte[] hash, Instant tokenExpiresAt) {
+        put(hash, tokenExpiresAt, REVOKED);
+    }
+
+    //familyExpiresAt: 이 패밀리의 토큰이 모두 만료되는 시각 (그 뒤엔 비워도 됨)
+    public void markFamilyRevoked(UUID familyId, Instant familyExpiresAt) {
+        put(familyId.getMostSignificantBits(), familyId.getLeastSignificantBits(), familyExpiresAt, REVOKED);
+    }
+
+    public boolean isFamilyRevoked(UUID familyId) {
+        if (!enabled || familyId == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return find(familyId.getMostSignificantBits(), familyId.getLeastSignificantBits()) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        lock.readLock().lock();
+        try {
+            return capacity;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //max-capacity 초과로 넣지 못한 횟수 (누적)
+    public long overflowCount() {
+        return overflow.get();
+    }
+
+    //마지막 재구성 이후 넣지 못한 토큰이 없는지
+    public boolean isComplete() {
+        return !incomplete;
+    }
+
+    //RevocationIndexLoader가 전체를 다시 넣기 직전에 호출 (그 뒤로 또 못 넣으면 다시 incomplete)
+    void beginRebuild() {
+        incomplete = false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.revocation_index.size", this, RevocationIndex::size)
+                .description("Rotated/revoked refresh token hashes held in memory")
+                .register(registry);
+        Gauge.builder("auth.revocation_index.capacity", this, RevocationIndex::capacity)
+                .register(registry);
+        FunctionCounter.builder("auth.revocation_index.overflow", overflow, AtomicLong::get)
+                .description("Hashes not indexed because the index was full")
+                .register(registry);
+    }
+
+    private void put(byte[] hash, Instant tokenExpiresAt, byte state) {
+        put((long) LONG_VIEW.get(hash, 0), (long) LONG_VIEW.get(hash, 8), tokenExpiresAt, state);
+    }
+
+    private void put(long hi, long lo, Instant expiresAt, byte state) {
+        if (!enabled) {
+            return;
+        }
+        long exp = expiresAt.getEpochSecond();
+        lock.writeLock().lock();
+        try {
+            int slot = find(hi, lo);
+            if (slot >= 0) {
+                states[slot] = (byte) Math.max(states[slot], state);
+                return;
+            }
+            if (size >= capacity) {
+                compact(Instant.now().getEpochSecond());
+            }
+            if (size >= capacity && capacity < maxCapacity) {
+                grow();
+            }
+            if (size >= capacity) {
+                overflow.incrementAndGet();
+                if (!incomplete) {
+                    incomplete = true;
+                    log.warn("revocation index is full at max capacity {}; trusted reissue uses the DB until it is rebuilt "
+                            + "(raise app.refresh-token.revocation-index.max-capacity)", capacity);
+                }
+                return;
+            }
+            insert(hi, lo, exp, state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int find(long hi, long lo) {
+        int slot = (int) (hi ^ (hi >>> 32)) & mask;
+        while (states[slot] != EMPTY) {
+            if (keyHi[slot] == hi && keyLo[slot] == lo) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long hi, long lo, long exp, byte state) {
+        int slot = (int) (hi ^ (hi >>> 32)) & mask;
+        while (states[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keyHi[slot] = hi;
+        keyLo[slot] = lo;
+        expiresAt[slot] = exp;
+        states[slot] = state;
+        size++;
+    }
+
+    //만료된 토큰은 어차피 JWT 검증에서 걸러지므로 테이블을 다시 만들면서 비운다. (write lock 안에서만 호출)
+    private void compact(long nowEpochSecond) {
+        rehash(states.length, nowEpochSecond);
+    }
+
+    //write lock 안에서만 호출
+    private void grow() {
+        int previous = capacity;
+        capacity = (int) Math.min((long) capacity * 2, maxCapacity);
+        rehash(tableSizeFor(capacity), Long.MIN_VALUE);
+        log.info("revocation index grown from {} to {} entries", previous, capacity);
+    }
+
+    private void rehash(int tableSize, long nowEpochSecond) {
+        long[] oldHi = keyHi, oldLo = keyLo, oldExp = expiresAt;
+        byte[] oldStates = states;
+        allocate(tableSize);
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] != EMPTY && oldExp[i] > nowEpochSecond) {
+                insert(oldHi[i], oldLo[i], oldExp[i], oldStates[i]);
+            }
+        }
+    }
+
+    //load factor 0.75 이하가 되도록 2의 거듭제곱 크기
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(Math.max(16, capacity * 4 / 3)) << 1;
+    }
+
+    private void allocate(int tableSize) {
+        keyHi = new long[tableSize];
+        keyLo = new long[tableSize];
+        expiresAt = new long[tableSize];
+        states = new byte[tableSize];
+        mask = tableSize - 1;
+        size = 0;
+    }
+}
@@ -0,0 +1,64 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.ReissueConfig;
+import hello.hackathon.store.TokenStateStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//앱 시작 시 토큰 저장소에서 아직 만료되지 않은 회전/폐기 토큰을 스트리밍으로 읽어 RevocationIndex를 다시 채운다.
+//(전체를 List로 올리지 않고 한 건씩 처리)
+//다 채운 뒤에야 RevocationFeed가 trusted reissue를 허용한다.
+//인덱스가 max-capacity에서도 가득 차서 못 넣은 토큰이 생기면 (trusted 모드에서) 주기적으로 다시 채운다.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevocationIndexLoader {
+    private final TokenStateStore tokenStore;
+    private final RevocationIndex revocationIndex;
+    private final RevocationFeed revocationFeed;
+    private final ReissueConfig reissueConfig;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!revocationIndex.isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        revocationIndex.beginRebuild();
+        tokenStore.forEachInactive(Instant.now(), state -> {
+            if (state.revokedAt() != null) {
+                revocationIndex.markRevoked(state.hash(), state.expiresAt());
+            } else {
+                revocationIndex.markRotated(state.hash(), state.expiresAt());
+            }
+            loaded.incrementAndGet();
+        });
+        if (!revocationIndex.isComplete()) {
+            log.warn("revocation index rebuild incomplete: {} tokens read, {} held (retrying later)",
+                    loaded.get(), revocationIndex.size());
+            return;
+        }
+        revocationFeed.markIndexRebuilt();
+        log.info("revocation index rebuilt: {} tokens in {} ms", loaded.get(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    //넣지 못한 토큰이 생겼으면 그 사이 만료된 엔트리가 비워지기를 기대하고 처음부터 다시 채운다
+    @Scheduled(initialDelayString = "${app.refresh-token.revocation-index.rebuild-check-seconds:60}",
+            fixedDelayString = "${app.refresh-token.revocation-index.rebuild-check-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void rebuildIfIncomplete() {
+        if (reissueConfig.getMode() != ReissueConfig.Mode.TRUSTED || revocationIndex.isComplete()) {
+            return;
+        }
+        revocationFeed.markIndexRebuilding();
+        rebuild();
+    }
+}
@@ -0,0 +1,47 @@
+package hello.hackathon.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+//social_account 유니크 제약 교체
+//이전: provider_id 단독 unique (@Column(unique = true)로 생긴 제약)
+//이후: (provider, provider_id) unique 인덱스 ux_social_account_provider_id
+//ddl-auto: update는 새 인덱스만 만들고 이전 제약은 지우지 않아서, 다른 제공자의 같은 providerId가 계속 충돌한다.
+//-> provider_id 하나만 묶는 UNIQUE 제약을 찾아 지우고 새 인덱스가 없으면 만든다. (웹 서버 시작 전에 실행)
+//ddl-auto: none인 환경(prod)에서는 배포 때 한 번 켜서 돌리거나 아래 DDL을 직접 실행
+//  alter table social_account drop constraint <provider_id 단독 unique 제약 이름>;
+//  create unique index ux_social_account_provider_id on social_account(provider, provider_id);
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.schema.social-account-unique", havingValue = "true", matchIfMissing = true)
+public class SocialAccountUniqueMigration implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String constraint : providerIdOnlyUniqueConstraints()) {
+            jdbcTemplate.execute("alter table social_account drop constraint \"" + constraint + "\"");
+            log.info("dropped unique constraint {} on social_account(provider_id)", constraint);
+        }
+        jdbcTemplate.execute(
+                "create unique index if not exists ux_social_account_provider_id on social_account(provider, provider_id)");
+    }
+
+    private List<String> providerIdOnlyUniqueConstraints() {
+        return jdbcTemplate.queryForList(
+                "select tc.constraint_name from information_schema.table_constraints tc"
+                        + " join information_schema.key_column_usage k"
+                        + " on k.constraint_schema = tc.constraint_schema and k.constraint_name = tc.constraint_name"
+                        + " where upper(tc.table_name) = 'SOCIAL_ACCOUNT' and tc.constraint_type = 'UNIQUE'"
+                        + " group by tc.constraint_name"
+                        + " having count(*) = 1 and max(upper(k.column_name)) = 'PROVIDER_ID'",
+                String.class);
+    }
+}
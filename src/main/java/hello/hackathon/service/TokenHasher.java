@@ -0,0 +1,53 @@
+package hello.hackathon.service;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+//토큰 해시 (SHA-256, 32바이트 바이너리)
+//DB에는 토큰 원문 대신 이 값만 저장한다.
+//MessageDigest.getInstance()는 매번 provider를 조회하므로, 프로토타입을 한 번 만들고 스레드마다 clone해서 재사용
+//토큰 바이트는 String.getBytes로 (JDK 내장 복사가 char 단위 루프보다 빠름 - RefreshTokenHashBenchmark 참고)
+@Component
+public class TokenHasher {
+    public static final int HASH_LENGTH = 32;
+
+    private static final MessageDigest PROTOTYPE;
+    static {
+        try {
+            PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return (MessageDigest) PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    //32바이트 해시를 새 배열로 반환 (엔티티에 저장할 값)
+    public byte[] hash(String token) {
+        byte[] out = new byte[HASH_LENGTH];
+        hashInto(token, out, 0);
+        return out;
+    }
+
+    //호출자가 준 버퍼에 바로 기록 (할당은 토큰 바이트 배열 하나)
+    public void hashInto(String token, byte[] out, int offset) {
+        MessageDigest md = DIGEST.get();
+        md.update(token.getBytes(StandardCharsets.UTF_8));
+        try {
+            md.digest(out, offset, HASH_LENGTH); // digest()는 내부 상태도 초기화해준다.
+        } catch (DigestException e) {
+            md.reset();
+            throw new IllegalArgumentException("hash output buffer too small", e);
+        }
+    }
+}
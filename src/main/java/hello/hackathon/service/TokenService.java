@@ -1,75 +1,226 @@
 package hello.hackathon.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import hello.hackathon.config.JwtConfig;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
-import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 //우리 앱 자체 액세스 토큰과 리프레시 토큰 발급
 @Service
-public class TokenService {
+public class TokenService implements MeterBinder {
+    //토큰 종류 클레임 - 액세스 토큰을 refresh/reissue에, 리프레시 토큰을 API 인증에 쓰지 못하게 구분
+    private static final String TYPE_CLAIM = "typ";
+    private static final String ACCESS_TYPE = "access";
+    private static final String REFRESH_TYPE = "refresh";
+
     private final JwtConfig jwtConfig;
-    private SecretKey key;
-    public TokenService(JwtConfig jwtConfig) {
+    private final JwtKeyRing keyRing;
+    private final AuthMetrics authMetrics;
+    private JwtParser parser;
+    //최근 검증에 성공한 토큰 -> Claims (토큰 자체 만료 시각까지만 보관)
+    private Cache<String, Claims> verifiedClaims;
+    public TokenService(JwtConfig jwtConfig, JwtKeyRing keyRing, AuthMetrics authMetrics) {
         this.jwtConfig = jwtConfig;
+        this.keyRing = keyRing;
+        this.authMetrics = authMetrics;
     }
 
-    //JWT 서명/검증에 쓸 SecretKey를 앱 시작 시 생성해 캐싱
+    //JWT 검증 파서를 앱 시작 시 만들어 캐싱 (키는 JwtKeyRing)
     @PostConstruct //스프링이 빈을 만들고 설정 주입이 끝난 직후 자동으로 호출
     public void init() {
-        //시크릿 키가 16진수 문자열이므로 32비트 문자열이 되도록 수정
-        byte[] keyBytes = HexFormat.of().parseHex(jwtConfig.getSecret());
-        key = Keys.hmacShaKeyFor(keyBytes);
+        //파서는 불변 + 스레드 세이프이므로 한 번만 만들어 재사용
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() { // 헤더의 kid/alg로 검증 키 선택
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyRing.verificationKey(header.getKeyId(), header.getAlgorithm(), Instant.now());
+                    }
+                })
+                .requireIssuer(jwtConfig.getIssuer())            // 우리 발급자만 허용
+                .setAllowedClockSkewSeconds(60)             // 60초 스큐 허용
+                .build();
+        if (jwtConfig.getVerifyCacheSize() > 0) {
+            verifiedClaims = Caffeine.newBuilder()
+                    .maximumSize(jwtConfig.getVerifyCacheSize()) // LRU에 가까운 W-TinyLFU로 크기 제한
+                    .recordStats() // cache.* 메트릭 (jwt.verify)
+                    .expireAfter(new Expiry<String, Claims>() {
+                        @Override
+                        public long expireAfterCreate(String jwt, Claims claims, long currentTime) {
+                            return remainingNanos(claims);
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String jwt, Claims claims, long currentTime, long currentDuration) {
+                            return remainingNanos(claims);
+                        }
+
+                        @Override
+                        public long expireAfterRead(String jwt, Claims claims, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
     }
 
     //액세스 토큰 발급
-    public String createAccess(Long userId, String email, String nickname){
+    //fid: 세션 패밀리 (로그아웃 시 이 기기의 리프레시 토큰 체인만 폐기하기 위함)
+    public String createAccess(Long userId, String email, String nickname, UUID familyId){
+        long started = System.nanoTime();
         Instant now = Instant.now();
         //Jwt로 액세스 토큰 생성
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setIssuer(jwtConfig.getIssuer())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(now.plusSeconds(jwtConfig.getAccessTtlSeconds())))
-                .claim("uid",userId).claim("email",email).claim("name",nickname)
-                .signWith(key, SignatureAlgorithm.HS256)
-                .compact();
+                .claim(TYPE_CLAIM,ACCESS_TYPE)
+                .claim("uid",userId).claim("email",email).claim("name",nickname).claim("fid",familyIdClaim(familyId));
+        String jwt = sign(builder, now);
+        authMetrics.sign(AuthMetrics.TokenType.ACCESS, System.nanoTime() - started);
+        return jwt;
     }
 
     //리프레시 토큰 발급 (이것도 JWT로)
-    public String createRefresh(Long userId){
+    //jti를 넣어서 같은 초에 두 번 발급해도 토큰(=해시)이 겹치지 않게 한다. (token_hash 유니크 인덱스)
+    //email/name은 trusted reissue 모드에서 DB 없이 액세스 토큰을 만들 때 사용
+    //fid는 회전해도 그대로 이어진다. (재사용 감지 시 DB 조회 없이 패밀리 폐기)
+    public String createRefresh(Long userId, String email, String nickname, UUID familyId){
+        long started = System.nanoTime();
         Instant now = Instant.now();
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setIssuer(jwtConfig.getIssuer())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(now.plusSeconds(jwtConfig.getRefreshTtlSeconds())))
-                .claim("uid",userId)
-                .signWith(key,SignatureAlgorithm.HS256)
+                .claim(TYPE_CLAIM,REFRESH_TYPE)
+                .claim("uid",userId).claim("email",email).claim("name",nickname).claim("fid",familyIdClaim(familyId));
+        String jwt = sign(builder, now);
+        authMetrics.sign(AuthMetrics.TokenType.REFRESH, System.nanoTime() - started);
+        return jwt;
+    }
+
+    //토큰의 세션 패밀리, 이전에 발급된 토큰(fid 없음)이면 null
+    public UUID familyId(Claims claims) {
+        String fid = claims.get("fid", String.class);
+        if (fid == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(fid);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token");
+        }
+    }
+
+    //null이면 클레임을 넣지 않음
+    private static String familyIdClaim(UUID familyId) {
+        return familyId == null ? null : familyId.toString();
+    }
+
+    //HS256: secret으로 서명 (kid 없음, 기존과 동일)
+    //ES256: 지금 유효한 키 링의 키로 서명 + kid 헤더
+    private String sign(JwtBuilder builder, Instant now) {
+        if (!keyRing.isAsymmetric()) {
+            return builder.signWith(keyRing.hmacKey(), SignatureAlgorithm.HS256).compact();
+        }
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey(now);
+        return builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .signWith(signingKey.privateKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
 
     //Jwt 검증 로직
+    //같은 토큰이 다시 들어오면 서명 검증과 JSON 디코딩을 건너뛰고 캐시된 Claims 반환
+    //키는 서명 부분만이 아니라 토큰 전체 (서명만 같고 payload가 바뀐 토큰이 캐시에 걸리지 않도록)
     public Claims parseAndValidate(String jwt){
+        if (verifiedClaims != null && jwt != null) {
+            Claims cached = verifiedClaims.getIfPresent(jwt);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long started = System.nanoTime();
+        Claims claims;
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)                         // HS256 대칭키
-                    .requireIssuer(jwtConfig.getIssuer())            // 우리 발급자만 허용
-                    .setAllowedClockSkewSeconds(60)             // 60초 스큐 허용
-                    .build()
-                    .parseClaimsJws(jwt)
-                    .getBody();
+            claims = parser.parseClaimsJws(jwt).getBody();
+            authMetrics.verify(true, System.nanoTime() - started);
         } catch (JwtException e) { //invalid한 JWT일 경우 401 반환
+            authMetrics.verify(false, System.nanoTime() - started);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token");
         }
+        if (verifiedClaims != null && remainingNanos(claims) > 0) {
+            verifiedClaims.put(jwt, claims);
+        }
+        return claims;
+    }
+
+    //refresh/reissue용 - 리프레시 토큰만 (액세스 토큰으로 액세스 토큰을 계속 받는 것 방지)
+    public Claims parseRefresh(String jwt) {
+        Claims claims = parseAndValidate(jwt);
+        if (!REFRESH_TYPE.equals(typeOf(claims))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid refresh token");
+        }
+        return claims;
+    }
+
+    //API 인증용 - 리프레시 토큰은 거절
+    public Claims parseAccess(String jwt) {
+        Claims claims = parseAndValidate(jwt);
+        if (!ACCESS_TYPE.equals(typeOf(claims))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid token");
+        }
+        return claims;
+    }
+
+    //typ 클레임이 없는 이전 토큰은 모양으로 구분 (이미 발급된 세션이 배포 때 로그아웃되지 않도록)
+    //  jti 있음             -> 리프레시 (jti는 리프레시 토큰에만 넣어 왔음)
+    //  email/name 둘 다 없음 -> 리프레시 (처음 형식의 리프레시 토큰은 uid만 가짐)
+    //  그 외                -> 액세스
+    private static String typeOf(Claims claims) {
+        String type = claims.get(TYPE_CLAIM, String.class);
+        if (type != null) {
+            return type;
+        }
+        if (claims.getId() != null || (!claims.containsKey("email") && !claims.containsKey("name"))) {
+            return REFRESH_TYPE;
+        }
+        return ACCESS_TYPE;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (verifiedClaims != null) {
+            CaffeineCacheMetrics.monitor(registry, verifiedClaims, "jwt.verify");
+        }
+    }
+
+    //토큰 만료 시각까지 남은 시간 (만료 정보가 없으면 캐싱하지 않음)
+    private static long remainingNanos(Claims claims) {
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis()));
     }
 }
@@ -0,0 +1,120 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.UserCacheConfig;
+import hello.hackathon.dto.UserSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+//유저 id -> UserSummary read-through 캐시 (reissue / refresh / logout 경로)
+//
+//- 키: long 그대로 (Long 박싱 / 맵 노드 할당 없음)
+//- 저장: 크기 고정 2-way set associative 배열, 슬롯마다 불변 Entry 하나 -> 락 없이 읽고 덮어쓴다.
+//  같은 set에 셋째 유저가 들어오면 더 오래된 쪽을 밀어냄 (활성 유저가 적으면 사실상 전부 적중)
+//- 만료: 엔트리마다 ttl-seconds
+//- 무효화: UserEntity 변경 시 UserSummaryInvalidator가 호출.
+//  로드 중에 무효화가 끼어들면(generation이 바뀜) 읽어온 값을 캐시에 넣지 않는다.
+@Component
+public class UserSummaryCache implements MeterBinder {
+    private record Entry(long id, UserSummary summary, long expiresAtNanos) {}
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public UserSummaryCache(UserCacheConfig config) {
+        this.enabled = config.isEnabled() && config.getMaximumSize() > 0;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(config.getTtlSeconds());
+        int size = enabled ? Integer.highestOneBit(Math.max(2, config.getMaximumSize() - 1)) << 1 : 0;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public Optional<UserSummary> get(long id, LongFunction<Optional<UserSummary>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        long now = System.nanoTime();
+        int slot = slotOf(id);
+        Entry hit = match(slot, id, now);
+        if (hit == null) {
+            hit = match(slot ^ 1, id, now);
+        }
+        if (hit != null) {
+            hits.incrementAndGet();
+            return Optional.of(hit.summary());
+        }
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        Optional<UserSummary> loaded = loader.apply(id);
+        //없는 유저는 캐싱하지 않음 / 로드 중에 무효화가 있었으면 오래된 값일 수 있으므로 넣지 않음
+        if (loaded.isPresent() && generation.get() == loadedAt) {
+            put(slot, new Entry(id, loaded.get(), now + ttlNanos), now);
+        }
+        return loaded;
+    }
+
+    public void invalidate(long id) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        int slot = slotOf(id);
+        remove(slot, id);
+        remove(slot ^ 1, id);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "user.summary", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "user.summary", "result", "miss")
+                .register(registry);
+    }
+
+    private Entry match(int slot, long id, long now) {
+        Entry e = table.get(slot);
+        return e != null && e.id() == id && e.expiresAtNanos() - now > 0 ? e : null;
+    }
+
+    //같은 유저가 있던 슬롯 -> 빈/만료 슬롯 -> 만료가 더 이른 슬롯 순으로 자리를 고른다.
+    private void put(int slot, Entry entry, long now) {
+        int other = slot ^ 1;
+        Entry a = table.get(slot);
+        Entry b = table.get(other);
+        int target;
+        if (a == null || a.id() == entry.id() || a.expiresAtNanos() - now <= 0) {
+            target = slot;
+        } else if (b == null || b.id() == entry.id() || b.expiresAtNanos() - now <= 0) {
+            target = other;
+        } else {
+            target = a.expiresAtNanos() - b.expiresAtNanos() <= 0 ? slot : other;
+        }
+        table.set(target, entry);
+    }
+
+    private void remove(int slot, long id) {
+        Entry e = table.get(slot);
+        if (e != null && e.id() == id) {
+            table.compareAndSet(slot, e, null);
+        }
+    }
+
+    private int slotOf(long id) {
+        long h = id * 0x9E3779B97F4A7C15L; // 연속된 id가 인접 set에 몰리지 않도록 섞음
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
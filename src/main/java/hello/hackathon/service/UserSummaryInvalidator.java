@@ -0,0 +1,35 @@
+package hello.hackathon.service;
+
+import hello.hackathon.domain.UserEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//UserEntity가 수정/삭제되면 UserSummaryCache에서 제거하는 JPA 엔티티 리스너
+//(Hibernate가 스프링 빈 컨테이너에서 꺼내 쓰므로 생성자 주입 가능)
+//flush 시점에 한 번, 커밋 후에 한 번 더 -> 커밋 전에 다른 요청이 옛 값을 다시 캐싱해도 커밋 후에 지워진다.
+@Component
+public class UserSummaryInvalidator {
+    private final UserSummaryCache userSummaryCache;
+
+    public UserSummaryInvalidator(UserSummaryCache userSummaryCache) {
+        this.userSummaryCache = userSummaryCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserEntity user) {
+        long id = user.getId();
+        userSummaryCache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userSummaryCache.invalidate(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package hello.hackathon.social;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.hackathon.config.SocialProviderConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+//애플 로그인 - 사용자 정보 API가 없으므로 앱에서 받은 id_token(RS256 JWT)을 애플 공개키로 직접 검증
+//공개키(JWKS)는 keys-cache-seconds 동안 캐싱, 모르는 kid가 오면(애플 키 교체) 최소 간격을 두고 한 번 다시 받는다.
+//닉네임/사진은 id_token에 없음 (애플은 최초 동의 시 앱에만 이름을 한 번 넘겨줌)
+//https://developer.apple.com/documentation/sign_in_with_apple/sign_in_with_apple_rest_api/verifying_a_user
+@Component
+public class AppleProfileClient implements SocialProfileClient {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFields HEADER_FIELDS = JsonFields.of("/kid");
+
+    private final SocialHttpClient http;
+    private final SocialProviderConfig.Apple config;
+    private final AtomicReference<Mono<Map<String, PublicKey>>> keys = new AtomicReference<>();
+    private final AtomicLong lastKeysFetch = new AtomicLong();
+    //마지막으로 받은 키 묶음 (서명 검증 시 kid로 조회)
+    private volatile Map<String, PublicKey> knownKeys = Map.of();
+    private final JwtParser parser;
+
+    public AppleProfileClient(SocialHttpClient http, SocialProviderConfig providerConfig) {
+        this.http = http;
+        this.config = providerConfig.getApple();
+        this.keys.set(fetchKeys());
+        this.parser = !StringUtils.hasText(config.getClientId()) ? null : Jwts.parserBuilder()
+                .requireIssuer(config.getIssuer())
+                .requireAudience(config.getClientId())
+                .setAllowedClockSkewSeconds(60)
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = knownKeys.get(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("unknown kid");
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public SocialProvider provider() {
+        return SocialProvider.APPLE;
+    }
+
+    @Override
+    public Mono<SocialProfile> fetchProfile(String idToken) {
+        if (parser == null) {
+            return Mono.error(new ResponseStatusException(SERVICE_UNAVAILABLE, "apple login is not configured"));
+        }
+        String kid = kidOf(idToken);
+        return keysFor(kid).map(loaded -> {
+            try {
+                Claims claims = parser.parseClaimsJws(idToken).getBody();
+                return new SocialProfile(SocialProvider.APPLE, claims.getSubject(),
+                        claims.get("email", String.class), null, null, null);
+            } catch (JwtException e) {
+                throw new ResponseStatusException(UNAUTHORIZED, "invalid apple token");
+            }
+        });
+    }
+
+    //캐시에 없는 kid면 키를 다시 받는다 (단, keys-refresh-min-interval-seconds에 한 번까지)
+    private Mono<Map<String, PublicKey>> keysFor(String kid) {
+        return keys.get().flatMap(current -> {
+            if (current.containsKey(kid)) {
+                return Mono.just(current);
+            }
+            long now = System.nanoTime();
+            long last = lastKeysFetch.get();
+            if (now - last < Duration.ofSeconds(config.getKeysRefreshMinIntervalSeconds()).toNanos()
+                    || !lastKeysFetch.compareAndSet(last, now)) {
+                return Mono.just(current);
+            }
+            Mono<Map<String, PublicKey>> refreshed = fetchKeys();
+            keys.set(refreshed);
+            return refreshed;
+        });
+    }
+
+    //성공한 결과만 keys-cache-seconds 동안 캐싱 (실패는 다음 요청에서 다시 시도)
+    private Mono<Map<String, PublicKey>> fetchKeys() {
+        return http.get(SocialProvider.APPLE, config.getKeysUri())
+                .map(AppleProfileClient::parseKeys)
+                .doOnNext(loaded -> knownKeys = loaded)
+                .doOnSubscribe(s -> lastKeysFetch.set(System.nanoTime()))
+                .cache(k -> Duration.ofSeconds(config.getKeysCacheSeconds()), e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    //JWKS는 드물게 받는 작은 문서라 트리로 읽는다.
+    static Map<String, PublicKey> parseKeys(byte[] body) {
+        try {
+            Map<String, PublicKey> parsed = new HashMap<>();
+            KeyFactory rsa = KeyFactory.getInstance("RSA");
+            for (JsonNode jwk : MAPPER.readTree(body).path("keys")) {
+                if (!"RSA".equals(jwk.path("kty").asText())) {
+                    continue;
+                }
+                BigInteger n = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+                BigInteger e = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+                parsed.put(jwk.path("kid").asText(), rsa.generatePublic(new RSAPublicKeySpec(n, e)));
+            }
+            return Map.copyOf(parsed);
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            throw new ResponseStatusException(BAD_GATEWAY, "malformed apple keys");
+        }
+    }
+
+    //서명 검증 전에 헤더의 kid만 읽는다. (어떤 키로 검증할지 고르기 위함)
+    private static String kidOf(String idToken) {
+        int dot = idToken.indexOf('.');
+        if (dot <= 0) {
+            throw new ResponseStatusException(UNAUTHORIZED, "invalid apple token");
+        }
+        String kid;
+        try {
+            kid = HEADER_FIELDS.extract(Base64.getUrlDecoder().decode(idToken.substring(0, dot)))[0];
+        } catch (IllegalArgumentException | ResponseStatusException e) {
+            throw new ResponseStatusException(UNAUTHORIZED, "invalid apple token");
+        }
+        //kid 없는 토큰은 고를 키가 없음 (키 맵은 null 키를 허용하지 않아 조회 시 NPE -> 500이 됨)
+        if (kid == null || kid.isBlank()) {
+            throw new ResponseStatusException(UNAUTHORIZED, "invalid apple token");
+        }
+        return kid;
+    }
+}
@@ -0,0 +1,36 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialProviderConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+//구글 OpenID Connect userinfo 조회 (sub가 계정 id)
+//https://developers.google.com/identity/openid-connect/openid-connect#obtaininguserprofileinformation
+@Component
+public class GoogleProfileClient implements SocialProfileClient {
+    private static final JsonFields FIELDS = JsonFields.of("/sub", "/email", "/name", "/picture");
+
+    private final SocialHttpClient http;
+    private final String userinfoUri;
+
+    public GoogleProfileClient(SocialHttpClient http, SocialProviderConfig providerConfig) {
+        this.http = http;
+        this.userinfoUri = providerConfig.getGoogle().getUserinfoUri();
+    }
+
+    @Override
+    public SocialProvider provider() {
+        return SocialProvider.GOOGLE;
+    }
+
+    @Override
+    public Mono<SocialProfile> fetchProfile(String accessToken) {
+        return http.getWithBearer(SocialProvider.GOOGLE, userinfoUri, accessToken)
+                .map(body -> {
+                    String[] v = FIELDS.extract(body);
+                    return new SocialProfile(SocialProvider.GOOGLE, v[0], v[1], v[2], v[3], null);
+                });
+    }
+}
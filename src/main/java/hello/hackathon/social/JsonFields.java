@@ -0,0 +1,73 @@
+package hello.hackathon.social;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+
+//JSON 본문에서 필요한 필드만 스트리밍으로 뽑아내는 도구 (JsonNode 트리를 만들지 않음)
+//경로는 JSON Pointer 형식("/kakao_account/profile/nickname"), 값은 문자열로 (숫자 id도 "1234"로)
+//관심 없는 필드/배열은 skipChildren()으로 건너뛴다.
+//
+//  JsonFields fields = JsonFields.of("/id", "/kakao_account/email");
+//  String[] values = fields.extract(body); // values[0] = id, values[1] = email (없거나 null이면 null)
+public final class JsonFields {
+    private static final JsonFactory FACTORY = new JsonFactory(); // 스레드 세이프
+
+    private final Node root = new Node();
+    private final int size;
+
+    private JsonFields(String[] pointers) {
+        for (int i = 0; i < pointers.length; i++) {
+            Node node = root;
+            for (String segment : pointers[i].substring(1).split("/")) {
+                node = node.children.computeIfAbsent(segment, k -> new Node());
+            }
+            node.index = i;
+        }
+        this.size = pointers.length;
+    }
+
+    public static JsonFields of(String... pointers) {
+        return new JsonFields(pointers);
+    }
+
+    public String[] extract(byte[] body) {
+        String[] values = new String[size];
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                readObject(parser, root, values);
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(BAD_GATEWAY, "malformed social api response");
+        }
+        return values;
+    }
+
+    private static void readObject(JsonParser parser, Node node, String[] values) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Node child = node.children.get(parser.currentName());
+            JsonToken token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren(); // 스칼라 값이면 아무 일도 하지 않음
+            } else if (token == JsonToken.START_OBJECT) {
+                readObject(parser, child, values);
+            } else if (token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            } else if (child.index >= 0 && token != JsonToken.VALUE_NULL) {
+                values[child.index] = parser.getText();
+            }
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>(4);
+        int index = -1;
+    }
+}
@@ -0,0 +1,41 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialProviderConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+//카카오 사용자 정보 조회
+//자세한 사항은 예제 참조 - https://developers.kakao.com/docs/latest/ko/kakaologin/rest-api#req-user-info-sample
+@Component
+public class KakaoProfileClient implements SocialProfileClient {
+    private static final JsonFields FIELDS = JsonFields.of(
+            "/id",
+            "/kakao_account/email",
+            "/kakao_account/profile/nickname",
+            "/kakao_account/profile/profile_image_url",
+            "/kakao_account/profile/thumbnail_image_url");
+
+    private final SocialHttpClient http;
+    private final String userinfoUri;
+
+    public KakaoProfileClient(SocialHttpClient http, SocialProviderConfig providerConfig) {
+        this.http = http;
+        this.userinfoUri = providerConfig.getKakao().getUserinfoUri();
+    }
+
+    @Override
+    public SocialProvider provider() {
+        return SocialProvider.KAKAO;
+    }
+
+    @Override
+    public Mono<SocialProfile> fetchProfile(String accessToken) {
+        return http.getWithBearer(SocialProvider.KAKAO, userinfoUri, accessToken)
+                .map(body -> {
+                    String[] v = FIELDS.extract(body);
+                    return new SocialProfile(SocialProvider.KAKAO, v[0], v[1], v[2], v[3], v[4]);
+                });
+    }
+}
@@ -0,0 +1,49 @@
+package hello.hackathon.social;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//최근 성공 응답 지연 N개를 링 버퍼에 담아 두고 분위수를 계산 (헤지 지연 결정용)
+//기록은 락 없이 슬롯 덮어쓰기, 분위수는 64건마다 한 번만 다시 계산 (읽기는 volatile 한 번)
+final class LatencyWindow {
+    private static final int RECOMPUTE_EVERY = 64;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private final int minSamples;
+    private volatile long percentileNanos = -1;
+
+    LatencyWindow(int size, double percentile, int minSamples) {
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, size);
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), nanos);
+        if ((n + 1) % RECOMPUTE_EVERY == 0 || n + 1 == minSamples) {
+            recompute();
+        }
+    }
+
+    //표본이 부족하면 -1
+    long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute() {
+        int n = (int) Math.min(count.get(), samples.length());
+        if (n < minSamples) {
+            return;
+        }
+        long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        percentileNanos = sorted[Math.max(0, (int) Math.ceil(percentile * n) - 1)];
+    }
+}
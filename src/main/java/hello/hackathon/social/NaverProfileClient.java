@@ -0,0 +1,40 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialProviderConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+//네이버 회원 프로필 조회 - 응답이 {"resultcode":"00","message":"success","response":{...}} 형태
+//https://developers.naver.com/docs/login/profile/profile.md
+@Component
+public class NaverProfileClient implements SocialProfileClient {
+    private static final JsonFields FIELDS = JsonFields.of(
+            "/response/id",
+            "/response/email",
+            "/response/nickname",
+            "/response/profile_image");
+
+    private final SocialHttpClient http;
+    private final String userinfoUri;
+
+    public NaverProfileClient(SocialHttpClient http, SocialProviderConfig providerConfig) {
+        this.http = http;
+        this.userinfoUri = providerConfig.getNaver().getUserinfoUri();
+    }
+
+    @Override
+    public SocialProvider provider() {
+        return SocialProvider.NAVER;
+    }
+
+    @Override
+    public Mono<SocialProfile> fetchProfile(String accessToken) {
+        return http.getWithBearer(SocialProvider.NAVER, userinfoUri, accessToken)
+                .map(body -> {
+                    String[] v = FIELDS.extract(body);
+                    return new SocialProfile(SocialProvider.NAVER, v[0], v[1], v[2], v[3], null);
+                });
+    }
+}
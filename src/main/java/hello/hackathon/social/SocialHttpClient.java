@@ -0,0 +1,114 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialHttpConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.service.AuthMetrics;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+
+//소셜 로그인 제공자 API 호출용 공유 HTTP 클라이언트
+//WebClient를 요청마다 / 제공자마다 만들지 않고, 커넥션 풀을 가진 WebClient 하나를 앱 시작 시 만들어 재사용한다.
+//응답은 byte[]로만 받고 파싱은 각 SocialProfileClient가 필요한 필드만 스트리밍으로 (JsonFields)
+@Component
+public class SocialHttpClient {
+    private final SocialHttpConfig httpConfig;
+    private final UpstreamGuard upstreamGuard;
+    private final AuthMetrics authMetrics;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    //스프링부트가 자동 제공해주는 WebClient.Builder를 복제해서 소셜 API 전용 설정을 얹는다.
+    public SocialHttpClient(WebClient.Builder webClientBuilder, SocialHttpConfig httpConfig,
+                            UpstreamGuard upstreamGuard, AuthMetrics authMetrics) {
+        this.httpConfig = httpConfig;
+        this.upstreamGuard = upstreamGuard;
+        this.authMetrics = authMetrics;
+        this.connectionProvider = ConnectionProvider.builder("social")
+                .maxConnections(httpConfig.getMaxConnections())
+                .pendingAcquireMaxCount(httpConfig.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(httpConfig.getPendingAcquireTimeoutMillis()))
+                .maxIdleTime(Duration.ofSeconds(httpConfig.getMaxIdleTimeSeconds()))
+                .maxLifeTime(Duration.ofSeconds(httpConfig.getMaxLifeTimeSeconds()))
+                .evictInBackground(Duration.ofSeconds(httpConfig.getEvictInBackgroundSeconds()))
+                .metrics(httpConfig.isMetricsEnabled()) // reactor.netty.connection.provider.* 메트릭
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, httpConfig.getConnectTimeoutMillis())
+                .responseTimeout(Duration.ofMillis(httpConfig.getResponseTimeoutMillis()))
+                .doOnConnected(conn -> conn.addHandlerLast(
+                        new ReadTimeoutHandler(httpConfig.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)));
+        if (httpConfig.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        this.webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(httpConfig.getMaxInMemorySizeBytes()))
+                .build();
+    }
+
+    //Authorization: Bearer {accessToken} 로 GET -> 응답 본문
+    public Mono<byte[]> getWithBearer(SocialProvider provider, String uri, String accessToken) {
+        return exchange(provider, webClient.get().uri(uri).headers(h -> h.setBearerAuth(accessToken)));
+    }
+
+    //인증 없이 GET (공개키 등)
+    public Mono<byte[]> get(SocialProvider provider, String uri) {
+        return exchange(provider, webClient.get().uri(uri));
+    }
+
+    //bulkhead / circuit breaker / 헤지 / 재시도는 UpstreamGuard에서, 요청 한 건의 타임아웃과 에러 변환은 여기서
+    //WebClient의 Mono는 구독할 때마다 요청을 새로 보내므로 같은 Mono를 재시도/헤지에 그대로 쓴다.
+    private Mono<byte[]> exchange(SocialProvider provider, WebClient.RequestHeadersSpec<?> request) {
+        Mono<byte[]> call = send(provider, request);
+        return upstreamGuard.protect(provider, () -> call);
+    }
+
+    private Mono<byte[]> send(SocialProvider provider, WebClient.RequestHeadersSpec<?> request) {
+        String name = provider.name().toLowerCase(Locale.ROOT);
+        return request
+                .accept(MediaType.APPLICATION_JSON) // Accept 헤더를 application/json으로 설정
+                .retrieve() // 응답 받기 시작
+                .onStatus(HttpStatusCode::isError, resp -> // 에러 상태 코드(4xx, 5xx) 처리
+                        resp.bodyToMono(String.class)
+                                .defaultIfEmpty("")
+                                .flatMap(body -> Mono.error(new ResponseStatusException(
+                                        resp.statusCode(), name + " api error: " + body))))
+                .bodyToMono(byte[].class)
+                //제공자가 느려져도 요청 스레드가 무한정 묶이지 않도록 전체 시간 상한
+                .timeout(Duration.ofMillis(httpConfig.getRequestTimeoutMillis()))
+                .transform(call -> authMetrics.timeUpstream(provider, call)) // 타임아웃/연결 실패를 502/504로 바꾸기 전에 기록
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(GATEWAY_TIMEOUT, name + " api timeout"))
+                .onErrorMap(WebClientRequestException.class,
+                        e -> new ResponseStatusException(BAD_GATEWAY, name + " api unavailable"));
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+}
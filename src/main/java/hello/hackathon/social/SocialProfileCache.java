@@ -0,0 +1,75 @@
+package hello.hackathon.social;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hello.hackathon.config.SocialCacheConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.service.TokenHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+//(제공자, 액세스 토큰) -> 프로필 조회 결과를 잠깐 들고 있는 캐시
+//클라이언트 재시도 등으로 같은 토큰이 연달아 들어오면 제공자 API를 다시 호출하지 않는다.
+//키는 토큰 원문이 아니라 SHA-256 해시 (토큰 원문을 메모리에 오래 남기지 않기 위함)
+@Component
+public class SocialProfileCache implements MeterBinder {
+    private final SocialCacheConfig cacheConfig;
+    private final TokenHasher tokenHasher;
+    private AsyncCache<Key, SocialProfile> cache;
+
+    public SocialProfileCache(SocialCacheConfig cacheConfig, TokenHasher tokenHasher) {
+        this.cacheConfig = cacheConfig;
+        this.tokenHasher = tokenHasher;
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(cacheConfig.getTtlSeconds()))
+                .recordStats() // hit/miss/eviction 카운터
+                .buildAsync();
+    }
+
+    //같은 토큰에 대한 동시 미스는 하나의 CompletableFuture를 공유하므로 제공자 호출은 한 번만 나간다.
+    //실패한 future는 Caffeine이 알아서 캐시에서 제거 -> 에러 응답은 캐싱되지 않음
+    public Mono<SocialProfile> get(SocialProvider provider, String accessToken, Supplier<Mono<SocialProfile>> loader) {
+        if (!cacheConfig.isEnabled()) {
+            return loader.get();
+        }
+        CompletableFuture<SocialProfile> future =
+                cache.get(new Key(provider, hash(accessToken)), (k, executor) -> loader.get().toFuture());
+        //한 구독자의 취소가 같은 future를 기다리는 다른 요청까지 취소하지 않도록 suppressCancel = true
+        return Mono.fromFuture(future, true);
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    //cache.gets{result=hit|miss}, cache.evictions ... (cache=social.profile)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "social.profile");
+    }
+
+    //ByteBuffer는 내용 기준 equals/hashCode -> 32바이트 해시를 그대로 키로 사용
+    private ByteBuffer hash(String accessToken) {
+        return ByteBuffer.wrap(tokenHasher.hash(accessToken));
+    }
+
+    //제공자가 다르면 같은 토큰 문자열이라도 다른 항목
+    private record Key(SocialProvider provider, ByteBuffer tokenHash) {
+    }
+}
@@ -0,0 +1,15 @@
+package hello.hackathon.social;
+
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import reactor.core.publisher.Mono;
+
+//소셜 로그인 제공자별 프로필 조회 SPI
+//새 제공자는 이 인터페이스를 구현한 @Component 하나만 추가하면 SocialProfileClients에 등록된다.
+//HTTP 호출은 공유 SocialHttpClient로 (논블로킹), 응답 파싱은 JsonFields로 필요한 필드만
+public interface SocialProfileClient {
+    SocialProvider provider();
+
+    //credential: 제공자 액세스 토큰 (애플은 id_token)
+    Mono<SocialProfile> fetchProfile(String credential);
+}
@@ -0,0 +1,33 @@
+package hello.hackathon.social;
+
+import hello.hackathon.domain.SocialProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+//등록된 SocialProfileClient 빈을 제공자별로 모아 둔 것
+@Component
+public class SocialProfileClients {
+    private final Map<SocialProvider, SocialProfileClient> clients = new EnumMap<>(SocialProvider.class);
+
+    public SocialProfileClients(List<SocialProfileClient> all) {
+        for (SocialProfileClient client : all) {
+            if (clients.put(client.provider(), client) != null) {
+                throw new IllegalStateException("duplicate SocialProfileClient for " + client.provider());
+            }
+        }
+    }
+
+    public SocialProfileClient get(SocialProvider provider) {
+        SocialProfileClient client = clients.get(provider);
+        if (client == null) {
+            throw new ResponseStatusException(NOT_FOUND, "unsupported provider");
+        }
+        return client;
+    }
+}
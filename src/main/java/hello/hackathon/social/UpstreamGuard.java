@@ -0,0 +1,180 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialResilienceConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.service.AuthMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+//소셜 제공자 API 호출 보호 - 한 제공자가 느려지거나 죽어도 로그인 전체가 같이 묶이지 않도록
+//제공자별로 따로:
+//  bulkhead         동시 호출 수 상한, 넘치면 바로 503 (대기열에 쌓이지 않음)
+//  circuit breaker  실패율이 높으면 호출 없이 바로 503, 일정 시간 뒤 몇 건만 흘려보내 회복 확인
+//  hedge            첫 요청이 최근 p95보다 늦으면 한 번 더 보내고 먼저 온 응답 사용
+//  retry            5xx/연결 실패만, 지터 포함 백오프 (전부 GET이라 멱등)
+//
+//  retry( circuitBreaker( hedge( bulkhead(호출), bulkhead(호출) ) ) )
+//재시도마다 서킷에 한 건씩 기록되고, 헤지된 두 요청은 각각 bulkhead 자리를 차지한다.
+//상태 전이는 auth.social.circuit.transition, 현재 상태/호출 수는 resilience4j.* 메트릭으로 나간다.
+@Component
+public class UpstreamGuard implements MeterBinder {
+    private static final int LATENCY_WINDOW = 256;
+
+    private final SocialResilienceConfig config;
+    private final AuthMetrics authMetrics;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final Map<SocialProvider, Lane> lanes = new EnumMap<>(SocialProvider.class);
+
+    public UpstreamGuard(SocialResilienceConfig config, AuthMetrics authMetrics) {
+        this.config = config;
+        this.authMetrics = authMetrics;
+        SocialResilienceConfig.CircuitBreaker breaker = config.getCircuitBreaker();
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slowCallRateThreshold(breaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(Duration.ofMillis(breaker.getSlowCallDurationMillis()))
+                .waitDurationInOpenState(Duration.ofMillis(breaker.getWaitInOpenMillis()))
+                .permittedNumberOfCallsInHalfOpenState(breaker.getPermittedCallsInHalfOpen())
+                //제공자 장애만 실패로 센다. 4xx(만료된 토큰 등)는 사용자 문제라 실패율에 넣지 않음
+                .recordException(UpstreamGuard::isUpstreamFailure)
+                .ignoreException(e -> !isUpstreamFailure(e))
+                .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ofMillis(config.getBulkhead().getMaxWaitMillis()))
+                .build());
+        for (SocialProvider provider : SocialProvider.values()) {
+            String name = provider.name().toLowerCase(Locale.ROOT);
+            CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name);
+            circuitBreaker.getEventPublisher().onStateTransition(e -> authMetrics.circuitTransition(provider,
+                    e.getStateTransition().getFromState().name(), e.getStateTransition().getToState().name()));
+            lanes.put(provider, new Lane(name, circuitBreaker, bulkheads.bulkhead(name),
+                    new LatencyWindow(LATENCY_WINDOW, config.getHedge().getPercentile(), config.getHedge().getMinSamples()),
+                    retrySpec(provider)));
+        }
+    }
+
+    //call은 구독할 때마다 새 요청을 보내는 Mono (재시도/헤지 시 다시 호출됨)
+    public <T> Mono<T> protect(SocialProvider provider, Supplier<Mono<T>> call) {
+        Lane lane = lanes.get(provider);
+        return Mono.defer(() -> hedged(provider, lane, call))
+                .transformDeferred(CircuitBreakerOperator.of(lane.circuitBreaker()))
+                .retryWhen(lane.retry())
+                .onErrorMap(CallNotPermittedException.class,
+                        e -> new ResponseStatusException(SERVICE_UNAVAILABLE, lane.name() + " api circuit open"))
+                .onErrorMap(BulkheadFullException.class,
+                        e -> new ResponseStatusException(SERVICE_UNAVAILABLE, lane.name() + " api busy"));
+    }
+
+    public CircuitBreaker.State state(SocialProvider provider) {
+        return lanes.get(provider).circuitBreaker().getState();
+    }
+
+    //circuit breaker 상태/호출 수, bulkhead 사용량 (name=kakao|naver|google|apple)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+    }
+
+    //첫 요청은 그대로 진행시키고(cache로 공유), 지연 안에 응답이 없으면 두 번째 요청과 경쟁
+    //첫 요청이 지연 전에 실패하면 헤지 없이 바로 실패 (재시도는 바깥에서)
+    private <T> Mono<T> hedged(SocialProvider provider, Lane lane, Supplier<Mono<T>> call) {
+        Mono<T> primary = attempt(lane, call);
+        if (!config.getHedge().isEnabled() || lane.circuitBreaker().getState() != CircuitBreaker.State.CLOSED) {
+            return primary;
+        }
+        Mono<T> shared = primary.cache();
+        return shared.timeout(hedgeDelay(lane), Mono.defer(() -> {
+            if (lane.bulkhead().getMetrics().getAvailableConcurrentCalls() == 0) {
+                return shared; // 자리가 없으면 헤지하지 않고 첫 요청만 기다림
+            }
+            authMetrics.upstreamHedge(provider, false);
+            Mono<T> hedge = attempt(lane, call).doOnNext(v -> authMetrics.upstreamHedge(provider, true));
+            return Mono.firstWithValue(shared, hedge)
+                    .onErrorMap(NoSuchElementException.class, UpstreamGuard::firstFailure);
+        }));
+    }
+
+    //요청 한 건 - bulkhead 자리를 잡고, 성공 응답의 지연만 헤지 기준에 기록
+    private static <T> Mono<T> attempt(Lane lane, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    return call.get().doOnNext(v -> lane.latency().record(System.nanoTime() - started));
+                })
+                .transformDeferred(BulkheadOperator.of(lane.bulkhead()));
+    }
+
+    private Duration hedgeDelay(Lane lane) {
+        SocialResilienceConfig.Hedge hedge = config.getHedge();
+        long nanos = lane.latency().percentileNanos();
+        if (nanos < 0) {
+            return Duration.ofMillis(hedge.getInitialDelayMillis());
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return Duration.ofMillis(Math.max(hedge.getMinDelayMillis(), Math.min(hedge.getMaxDelayMillis(), millis)));
+    }
+
+    private RetryBackoffSpec retrySpec(SocialProvider provider) {
+        SocialResilienceConfig.Retry retry = config.getRetry();
+        return Retry.backoff(retry.getMaxRetries(), Duration.ofMillis(retry.getMinBackoffMillis()))
+                .maxBackoff(Duration.ofMillis(retry.getMaxBackoffMillis()))
+                .jitter(retry.getJitter())
+                .filter(UpstreamGuard::isRetryable)
+                .doBeforeRetry(signal -> authMetrics.upstreamRetry(provider))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()); // 마지막 에러(상태 코드) 그대로
+    }
+
+    //두 요청 모두 실패 -> 첫 요청의 에러를 돌려준다.
+    private static Throwable firstFailure(NoSuchElementException e) {
+        return e.getCause() == null ? e : Exceptions.unwrapMultiple(e.getCause()).get(0);
+    }
+
+    //제공자 쪽 장애: 5xx 응답, 연결 실패(502), 타임아웃(504)
+    static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof ResponseStatusException rse && rse.getStatusCode().is5xxServerError();
+    }
+
+    //타임아웃은 이미 request-timeout만큼 기다린 뒤라 다시 보내지 않는다.
+    static boolean isRetryable(Throwable e) {
+        return isUpstreamFailure(e)
+                && ((ResponseStatusException) e).getStatusCode().value() != GATEWAY_TIMEOUT.value();
+    }
+
+    private record Lane(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                        LatencyWindow latency, RetryBackoffSpec retry) {
+    }
+}
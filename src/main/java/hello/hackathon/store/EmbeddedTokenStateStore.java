@@ -0,0 +1,270 @@
+package hello.hackathon.store;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+//로컬 파일 기반 키-값 저장소 (H2 MVStore) - 재시작해도 토큰 상태가 남는 단일 노드용
+//키: 토큰 해시 hex, 값: userId + issuedAt/expiresAt/rotatedAt/revokedAt(epoch millis, 없으면 -1)
+//    + familyId(UUID, 없으면 0/0) 56바이트
+//유저별 토큰은 "userId/해시 hex" 키의 보조 맵으로 (정렬된 맵이라 접두사 범위만 훑는다)
+//읽기는 락 없이, 상태를 바꾸는 연산만 synchronized로 묶어서 read-modify-write를 원자적으로 처리
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "embedded")
+public class EmbeddedTokenStateStore implements TokenStateStore {
+    private static final int VALUE_LENGTH = 7 * Long.BYTES;
+    private static final long NONE = -1;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final MVStore store;
+    private final MVMap<String, byte[]> tokens;
+    //"userId/토큰 키" -> "" (유저별 토큰 목록)
+    private final MVMap<String, String> byUser;
+    private final boolean commitOnWrite;
+
+    public EmbeddedTokenStateStore(RefreshTokenConfig refreshTokenConfig) {
+        RefreshTokenConfig.Store config = refreshTokenConfig.getStore();
+        String fileName = config.isEmbeddedMemoryMapped() ? "nioMapped:" + config.getEmbeddedPath() : config.getEmbeddedPath();
+        this.store = new MVStore.Builder()
+                .fileName(fileName)
+                .open();
+        this.tokens = store.openMap("refresh_token");
+        this.byUser = store.openMap("refresh_token_by_user");
+        this.commitOnWrite = config.isEmbeddedCommitOnWrite();
+        log.info("embedded token store opened: {} ({} tokens)", fileName, tokens.size());
+    }
+
+    @Override
+    public synchronized void issue(TokenState state) {
+        String key = HEX.formatHex(state.hash());
+        tokens.put(key, encode(state));
+        byUser.put(userKey(state.userId(), key), "");
+        commitIfNeeded();
+    }
+
+    @Override
+    public Optional<TokenState> findByHash(byte[] hash) {
+        String key = HEX.formatHex(hash);
+        return Optional.ofNullable(decode(key, tokens.get(key)));
+    }
+
+    @Override
+    public synchronized boolean rotate(byte[] hash, Instant rotatedAt) {
+        String key = HEX.formatHex(hash);
+        TokenState current = decode(key, tokens.get(key));
+        if (current == null || !current.isActive()) {
+            return false;
+        }
+        tokens.put(key, encode(current.withRotatedAt(rotatedAt)));
+        commitIfNeeded();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean revoke(byte[] hash, Instant revokedAt) {
+        return revokeKey(HEX.formatHex(hash), revokedAt) != null;
+    }
+
+    @Override
+    public synchronized Optional<TokenState> revokeLatest(long userId, Instant revokedAt) {
+        Optional<String> latest = tokensOf(userId).stream()
+                .max(Comparator.comparing(TokenState::issuedAt))
+                .map(state -> HEX.formatHex(state.hash()));
+        latest.ifPresent(key -> revokeKey(key, revokedAt));
+        return latest.map(key -> decode(key, tokens.get(key)));
+    }
+
+    @Override
+    public synchronized long revokeFamily(long userId, UUID familyId, Instant revokedAt) {
+        long revoked = 0;
+        for (TokenState state : tokensOf(userId)) {
+            if (familyId.equals(state.familyId()) && revokeKey(HEX.formatHex(state.hash()), revokedAt) != null) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public synchronized List<TokenState> revokeAll(long userId, Instant revokedAt) {
+        List<TokenState> revoked = new ArrayList<>();
+        for (TokenState state : tokensOf(userId)) {
+            TokenState after = revokeKey(HEX.formatHex(state.hash()), revokedAt);
+            if (after != null && after.expiresAt().isAfter(revokedAt)) {
+                revoked.add(after);
+            }
+        }
+        return revoked;
+    }
+
+    //만료된 토큰은 남길 개수에 세지 않고, 최근 발급 순으로 keep개를 남긴다.
+    @Override
+    public synchronized long revokeFamiliesBeyond(long userId, int keep, Instant revokedAt) {
+        List<TokenState> active = new ArrayList<>();
+        for (TokenState state : tokensOf(userId)) {
+            if (state.isActive()) {
+                active.add(state);
+            }
+        }
+        active.sort(Comparator.comparing((TokenState state) -> state.expiresAt().isAfter(revokedAt))
+                .thenComparing(TokenState::issuedAt).reversed());
+        long revoked = 0;
+        for (int i = keep; i < active.size(); i++) {
+            if (revokeKey(HEX.formatHex(active.get(i).hash()), revokedAt) != null) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    //batchSize개씩 모아서 지우고 배치마다 커밋
+    @Override
+    public long purge(Instant cutoff, int batchSize, int maxBatches) {
+        long purged = 0;
+        String after = null;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Map.Entry<String, byte[]>> victims = new ArrayList<>(batchSize);
+            Cursor<String, byte[]> cursor = tokens.cursor(after);
+            while (cursor.hasNext() && victims.size() < batchSize) {
+                String key = cursor.next();
+                byte[] value = cursor.getValue();
+                after = key;
+                if (decode(key, value).isPurgeable(cutoff)) {
+                    victims.add(Map.entry(key, value));
+                }
+            }
+            if (victims.isEmpty()) {
+                break;
+            }
+            synchronized (this) {
+                for (Map.Entry<String, byte[]> victim : victims) {
+                    if (tokens.remove(victim.getKey()) != null) {
+                        byUser.remove(userKey(ByteBuffer.wrap(victim.getValue()).getLong(0), victim.getKey()));
+                        purged++;
+                    }
+                }
+                store.commit();
+            }
+            if (!cursor.hasNext()) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    @Override
+    public void forEachInactive(Instant now, Consumer<TokenState> consumer) {
+        long nowMillis = now.toEpochMilli();
+        tokens.forEach((key, value) -> {
+            ByteBuffer buf = ByteBuffer.wrap(value);
+            boolean inactive = buf.getLong(24) != NONE || buf.getLong(32) != NONE;
+            if (inactive && buf.getLong(16) > nowMillis) {
+                consumer.accept(decode(key, value));
+            }
+        });
+    }
+
+    @Override
+    public void forEachInactiveSince(Instant since, Instant now, Consumer<TokenState> consumer) {
+        long sinceMillis = since.toEpochMilli();
+        long nowMillis = now.toEpochMilli();
+        tokens.forEach((key, value) -> {
+            ByteBuffer buf = ByteBuffer.wrap(value);
+            boolean changed = buf.getLong(24) >= sinceMillis || buf.getLong(32) >= sinceMillis; // 없으면 -1
+            if (changed && buf.getLong(16) > nowMillis) {
+                consumer.accept(decode(key, value));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    //이 유저의 토큰 (byUser의 "userId/" 접두사 범위)
+    private List<TokenState> tokensOf(long userId) {
+        String prefix = userId + "/";
+        List<TokenState> states = new ArrayList<>();
+        Cursor<String, String> cursor = byUser.cursor(prefix);
+        while (cursor.hasNext()) {
+            String userKey = cursor.next();
+            if (!userKey.startsWith(prefix)) {
+                break;
+            }
+            String key = userKey.substring(prefix.length());
+            TokenState state = decode(key, tokens.get(key));
+            if (state != null) {
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    private static String userKey(long userId, String key) {
+        return userId + "/" + key;
+    }
+
+    private TokenState revokeKey(String key, Instant revokedAt) {
+        TokenState current = decode(key, tokens.get(key));
+        if (current == null || current.revokedAt() != null) {
+            return null;
+        }
+        TokenState revoked = current.withRevokedAt(revokedAt);
+        tokens.put(key, encode(revoked));
+        commitIfNeeded();
+        return revoked;
+    }
+
+    private void commitIfNeeded() {
+        if (commitOnWrite) {
+            store.commit();
+        }
+    }
+
+    private static byte[] encode(TokenState state) {
+        UUID familyId = state.familyId();
+        return ByteBuffer.allocate(VALUE_LENGTH)
+                .putLong(state.userId())
+                .putLong(state.issuedAt().toEpochMilli())
+                .putLong(state.expiresAt().toEpochMilli())
+                .putLong(state.rotatedAt() == null ? NONE : state.rotatedAt().toEpochMilli())
+                .putLong(state.revokedAt() == null ? NONE : state.revokedAt().toEpochMilli())
+                .putLong(familyId == null ? 0 : familyId.getMostSignificantBits())
+                .putLong(familyId == null ? 0 : familyId.getLeastSignificantBits())
+                .array();
+    }
+
+    private static TokenState decode(String key, byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(value);
+        long familyHi = buf.getLong(5 * Long.BYTES);
+        long familyLo = buf.getLong(6 * Long.BYTES);
+        UUID familyId = familyHi == 0 && familyLo == 0 ? null : new UUID(familyHi, familyLo);
+        return new TokenState(HEX.parseHex(key), buf.getLong(), familyId, Instant.ofEpochMilli(buf.getLong()),
+                Instant.ofEpochMilli(buf.getLong()), instantOrNull(buf.getLong()), instantOrNull(buf.getLong()));
+    }
+
+    private static Instant instantOrNull(long epochMillis) {
+        return epochMillis == NONE ? null : Instant.ofEpochMilli(epochMillis);
+    }
+}
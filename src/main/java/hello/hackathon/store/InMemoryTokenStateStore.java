@@ -0,0 +1,181 @@
+package hello.hackathon.store;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+//프로세스 내 저장소 - 불변 TokenState를 ConcurrentHashMap에 두고 replace(CAS)로만 바꾼다. (락 없음)
+//재시작하면 모든 토큰이 사라지므로 단일 노드 / 테스트 / 부하 테스트용
+//유저 -> 토큰 해시 집합을 따로 들고 있어서 유저/패밀리 단위 폐기는 그 유저의 토큰만 본다.
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "memory")
+public class InMemoryTokenStateStore implements TokenStateStore {
+    private final ConcurrentHashMap<ByteBuffer, TokenState> tokens = new ConcurrentHashMap<>();
+    //유저 -> 그 유저의 토큰 해시 (정리 작업에서 같이 지움)
+    private final ConcurrentHashMap<Long, Set<ByteBuffer>> byUser = new ConcurrentHashMap<>();
+
+    @Override
+    public void issue(TokenState state) {
+        ByteBuffer key = ByteBuffer.wrap(state.hash());
+        tokens.put(key, state);
+        //purge가 빈 목록을 지우는 것과 겹치지 않도록 추가도 compute 안에서
+        byUser.compute(state.userId(), (userId, keys) -> {
+            Set<ByteBuffer> userKeys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+            userKeys.add(key);
+            return userKeys;
+        });
+    }
+
+    @Override
+    public Optional<TokenState> findByHash(byte[] hash) {
+        return Optional.ofNullable(tokens.get(ByteBuffer.wrap(hash)));
+    }
+
+    @Override
+    public boolean rotate(byte[] hash, Instant rotatedAt) {
+        ByteBuffer key = ByteBuffer.wrap(hash);
+        while (true) {
+            TokenState current = tokens.get(key);
+            if (current == null || !current.isActive()) {
+                return false;
+            }
+            if (tokens.replace(key, current, current.withRotatedAt(rotatedAt))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean revoke(byte[] hash, Instant revokedAt) {
+        return revokeKey(ByteBuffer.wrap(hash), revokedAt) != null;
+    }
+
+    @Override
+    public Optional<TokenState> revokeLatest(long userId, Instant revokedAt) {
+        Optional<ByteBuffer> latest = tokensOf(userId).stream()
+                .max(Comparator.comparing(TokenState::issuedAt))
+                .map(state -> ByteBuffer.wrap(state.hash()));
+        latest.ifPresent(key -> revokeKey(key, revokedAt));
+        return latest.map(tokens::get);
+    }
+
+    @Override
+    public long revokeFamily(long userId, UUID familyId, Instant revokedAt) {
+        long revoked = 0;
+        for (TokenState state : tokensOf(userId)) {
+            if (familyId.equals(state.familyId()) && revokeKey(ByteBuffer.wrap(state.hash()), revokedAt) != null) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public List<TokenState> revokeAll(long userId, Instant revokedAt) {
+        List<TokenState> revoked = new ArrayList<>();
+        for (TokenState state : tokensOf(userId)) {
+            TokenState after = revokeKey(ByteBuffer.wrap(state.hash()), revokedAt);
+            if (after != null && after.expiresAt().isAfter(revokedAt)) {
+                revoked.add(after);
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public long revokeFamiliesBeyond(long userId, int keep, Instant revokedAt) {
+        List<TokenState> active = new ArrayList<>();
+        for (TokenState state : tokensOf(userId)) {
+            if (state.isActive()) {
+                active.add(state);
+            }
+        }
+        //만료된 토큰은 남길 개수에 세지 않고, 최근 발급 순으로 keep개를 남긴다.
+        active.sort(Comparator.comparing((TokenState state) -> state.expiresAt().isAfter(revokedAt))
+                .thenComparing(TokenState::issuedAt).reversed());
+        long revoked = 0;
+        for (int i = keep; i < active.size(); i++) {
+            if (revokeKey(ByteBuffer.wrap(active.get(i).hash()), revokedAt) != null) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    @Override
+    public long purge(Instant cutoff, int batchSize, int maxBatches) {
+        long limit = (long) batchSize * maxBatches;
+        long purged = 0;
+        Iterator<Map.Entry<ByteBuffer, TokenState>> it = tokens.entrySet().iterator();
+        while (it.hasNext() && purged < limit) {
+            Map.Entry<ByteBuffer, TokenState> entry = it.next();
+            if (entry.getValue().isPurgeable(cutoff) && tokens.remove(entry.getKey(), entry.getValue())) {
+                //토큰이 다 지워진 유저는 목록째 비운다
+                byUser.computeIfPresent(entry.getValue().userId(), (userId, keys) -> {
+                    keys.remove(entry.getKey());
+                    return keys.isEmpty() ? null : keys;
+                });
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    @Override
+    public void forEachInactive(Instant now, Consumer<TokenState> consumer) {
+        tokens.values().forEach(state -> {
+            if (!state.isActive() && state.expiresAt().isAfter(now)) {
+                consumer.accept(state);
+            }
+        });
+    }
+
+    @Override
+    public void forEachInactiveSince(Instant since, Instant now, Consumer<TokenState> consumer) {
+        tokens.values().forEach(state -> {
+            if (state.inactiveSince(since) && state.expiresAt().isAfter(now)) {
+                consumer.accept(state);
+            }
+        });
+    }
+
+    private List<TokenState> tokensOf(long userId) {
+        Set<ByteBuffer> keys = byUser.get(userId);
+        if (keys == null) {
+            return List.of();
+        }
+        List<TokenState> states = new ArrayList<>(keys.size());
+        for (ByteBuffer key : keys) {
+            TokenState state = tokens.get(key);
+            if (state != null) {
+                states.add(state);
+            }
+        }
+        return states;
+    }
+
+    private TokenState revokeKey(ByteBuffer key, Instant revokedAt) {
+        while (true) {
+            TokenState current = tokens.get(key);
+            if (current == null || current.revokedAt() != null) {
+                return null;
+            }
+            TokenState revoked = current.withRevokedAt(revokedAt);
+            if (tokens.replace(key, current, revoked)) {
+                return revoked;
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package hello.hackathon.store;
+
+import hello.hackathon.domain.RefreshToken;
+import hello.hackathon.repository.RefreshTokenRepository;
+import hello.hackathon.repository.UserEntityRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+//RefreshToken 테이블 기반 구현 (기본값)
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaTokenStateStore implements TokenStateStore {
+    private final RefreshTokenRepository refreshTokens;
+    private final UserEntityRepository users;
+    private final RefreshTokenWriter refreshTokenWriter;
+    private final TransactionTemplate readOnly;
+
+    public JpaTokenStateStore(RefreshTokenRepository refreshTokens, UserEntityRepository users,
+                              RefreshTokenWriter refreshTokenWriter, PlatformTransactionManager transactionManager) {
+        this.refreshTokens = refreshTokens;
+        this.users = users;
+        this.refreshTokenWriter = refreshTokenWriter;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    //로그인 트랜잭션 안에서 호출되면 getReferenceById는 방금 persist한 유저를 그대로 돌려준다.
+    @Override
+    public void issue(TokenState state) {
+        refreshTokenWriter.issue(users.getReferenceById(state.userId()), state.familyId(),
+                state.hash(), state.issuedAt(), state.expiresAt());
+    }
+
+    //userEntity는 LAZY 프록시 그대로 (id만 읽으므로 유저 조회가 추가로 나가지 않음)
+    @Override
+    public Optional<TokenState> findByHash(byte[] hash) {
+        refreshTokenWriter.awaitWritten(hash); // write-behind 큐에 남아 있는 토큰이면 먼저 저장
+        return refreshTokens.findByToken(hash).map(JpaTokenStateStore::toState);
+    }
+
+    //조건부 UPDATE 한 번으로 CAS (version도 같이 올려서 엔티티 기반 수정과도 충돌 감지)
+    @Override
+    public boolean rotate(byte[] hash, Instant rotatedAt) {
+        return refreshTokens.rotateIfActive(hash, rotatedAt) == 1;
+    }
+
+    @Override
+    public boolean revoke(byte[] hash, Instant revokedAt) {
+        return refreshTokens.revokeIfNotRevoked(hash, revokedAt) == 1;
+    }
+
+    @Override
+    public Optional<TokenState> revokeLatest(long userId, Instant revokedAt) {
+        refreshTokenWriter.awaitWrittenForUser(userId); // 가장 최근 토큰이 아직 큐에 있을 수 있음
+        return refreshTokens.findTopByUserEntityOrderByIssuedAtDesc(users.getReferenceById(userId))
+                .map(rt -> {
+                    rt.revoke(revokedAt);
+                    refreshTokens.save(rt);
+                    return toState(rt);
+                });
+    }
+
+    //아래 세 가지는 엔티티를 읽지 않고 조건부 UPDATE 한 번으로 (행 수와 상관없이 왕복 한 번)
+    //write-behind 큐에 남은 이 유저의 토큰을 먼저 저장해야 UPDATE에 걸린다.
+    @Override
+    public long revokeFamily(long userId, UUID familyId, Instant revokedAt) {
+        refreshTokenWriter.awaitWrittenForUser(userId);
+        return refreshTokens.revokeFamily(userId, familyId, revokedAt);
+    }
+
+    //UPDATE 전에 대상(폐기 전 + 만료 전)을 읽어 둔다. (그 사이에 발급된 토큰은 RevocationFeed로 반영)
+    @Override
+    public List<TokenState> revokeAll(long userId, Instant revokedAt) {
+        refreshTokenWriter.awaitWrittenForUser(userId);
+        List<TokenState> revoked = refreshTokens.findUnrevokedByUserId(userId, revokedAt).stream()
+                .map(row -> toState(row).withRevokedAt(revokedAt))
+                .toList();
+        refreshTokens.revokeAllByUserId(userId, revokedAt);
+        return revoked;
+    }
+
+    @Override
+    public long revokeFamiliesBeyond(long userId, int keep, Instant revokedAt) {
+        refreshTokenWriter.awaitWrittenForUser(userId);
+        return refreshTokens.revokeActiveBeyond(userId, keep, revokedAt);
+    }
+
+    //PK 순서대로 batchSize씩 (keyset 페이지네이션), 배치마다 별도 트랜잭션으로 커밋 -> 락은 배치 하나 동안만
+    @Override
+    public long purge(Instant cutoff, int batchSize, int maxBatches) {
+        long purged = 0;
+        long lastId = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = refreshTokens.findPurgeableIds(lastId, cutoff, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            purged += refreshTokens.deleteAllByIdIn(ids);
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    //전체를 List로 올리지 않고 스트리밍으로 한 행씩 처리
+    @Override
+    public void forEachInactive(Instant now, Consumer<TokenState> consumer) {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<RefreshTokenRepository.InactiveToken> rows = refreshTokens.streamInactive(now)) {
+                rows.forEach(row -> consumer.accept(toState(row)));
+            }
+        });
+    }
+
+    @Override
+    public void forEachInactiveSince(Instant since, Instant now, Consumer<TokenState> consumer) {
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<RefreshTokenRepository.InactiveToken> rows = refreshTokens.streamInactiveSince(since, now)) {
+                rows.forEach(row -> consumer.accept(toState(row)));
+            }
+        });
+    }
+
+    private static TokenState toState(RefreshTokenRepository.InactiveToken row) {
+        return new TokenState(row.getToken(), row.getUserId(), row.getFamilyId(), row.getIssuedAt(),
+                row.getExpiresAt(), row.getRotatedAt(), row.getRevokedAt());
+    }
+
+    private static TokenState toState(RefreshToken rt) {
+        return new TokenState(rt.getToken(), rt.getUserEntity().getId(), rt.getFamilyId(), rt.getIssuedAt(),
+                rt.getExpiresAt(), rt.getRotatedAt(), rt.getRevokedAt());
+    }
+}
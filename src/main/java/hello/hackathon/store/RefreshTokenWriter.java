@@ -0,0 +1,333 @@
+package hello.hackathon.store;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import hello.hackathon.domain.RefreshToken;
+import hello.hackathon.domain.UserEntity;
+import hello.hackathon.repository.RefreshTokenRepository;
+import hello.hackathon.repository.UserEntityRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+//리프레시 토큰 발급 기록 저장 (JpaTokenStateStore 전용)
+//SYNC: 호출한 트랜잭션 안에서 바로 저장 (기본값, 응답 전에 DB에 남음)
+//WRITE_BEHIND: 커밋 후 큐에 넣고 백그라운드 워커가 배치로 저장 -> 로그인/회전 응답 경로에서 INSERT 하나가 빠진다.
+//  - 큐가 가득 차면 offer-timeout-millis 만큼 기다리고, 그래도 자리가 없으면 동기 저장으로 대체 (백프레셔)
+//  - 아직 큐에 있는 토큰으로 refresh/reissue가 들어오면 그 토큰이 저장될 때까지 먼저 내보낸다. (토큰별 future로 대기)
+//  - 저장은 항상 새 트랜잭션(REQUIRES_NEW)에서 -> afterCommit 콜백 안의 동기 저장도 끝난 트랜잭션에 묻히지 않는다.
+//  - 배치가 실패하면(한 행 때문에 전체 롤백) 한 행씩 다시 저장하고, 그래도 실패한 토큰을 기다리던 요청은 503
+//  - 종료 시 남은 큐를 모두 저장
+//  - 저장 전에 프로세스가 죽으면 큐에 있던 토큰은 유실될 수 있음 (그 토큰은 다음 refresh에서 not found -> 재로그인)
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.refresh-token.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class RefreshTokenWriter implements MeterBinder {
+    //written: 저장되면 정상 완료, 저장에 실패하면 예외로 완료
+    private record Pending(Long userId, UUID familyId, byte[] hash, Instant issuedAt, Instant expiresAt,
+                           CompletableFuture<Void> written) {}
+
+    private final RefreshTokenRepository refreshTokens;
+    private final UserEntityRepository users;
+    private final TransactionTemplate requiresNew;
+    private final RefreshTokenConfig.WriteBehind config;
+
+    private final BlockingQueue<Pending> queue;
+    //큐에 들어갔지만 아직 커밋되지 않은 토큰 (해시 -> 기록)
+    private final ConcurrentHashMap<ByteBuffer, Pending> unwritten = new ConcurrentHashMap<>();
+    //같은 기록을 유저별로 (유저 단위 폐기 전에 그 유저 것만 기다리기 위함)
+    private final ConcurrentHashMap<Long, Set<Pending>> unwrittenByUser = new ConcurrentHashMap<>();
+    //워커와 호출 스레드(flush)가 동시에 배치를 쓰지 않도록
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicLong syncFallbacks = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private volatile boolean running;
+    private Thread worker;
+
+    public RefreshTokenWriter(RefreshTokenRepository refreshTokens, UserEntityRepository users,
+                              PlatformTransactionManager transactionManager, RefreshTokenConfig refreshTokenConfig) {
+        this.refreshTokens = refreshTokens;
+        this.users = users;
+        //afterCommit 시점에도 끝난 트랜잭션의 리소스가 바인딩돼 있어서, REQUIRED로는 그 트랜잭션에 참여만 하고 커밋되지 않는다.
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.config = refreshTokenConfig.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isWriteBehind()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, "refresh-token-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void issue(UserEntity userEntity, UUID familyId, byte[] hash, Instant issuedAt, Instant expiresAt) {
+        if (!isWriteBehind()) {
+            refreshTokens.save(toEntity(userEntity, familyId, hash, issuedAt, expiresAt));
+            return;
+        }
+        Pending pending = new Pending(userEntity.getId(), familyId, hash, issuedAt, expiresAt, new CompletableFuture<>());
+        //신규 유저는 아직 커밋 전이므로, 커밋이 끝난 뒤에 큐에 넣어야 워커의 INSERT가 FK에 걸리지 않는다.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+        }
+    }
+
+    //이 토큰이 아직 큐에 있으면 저장될 때까지 기다림 (해당 토큰을 DB에서 조회하기 직전에 호출)
+    public void awaitWritten(byte[] hash) {
+        Pending pending = unwritten.get(ByteBuffer.wrap(hash));
+        if (pending != null) {
+            await(pending);
+        }
+    }
+
+    //이 유저의 토큰 중 큐에 남은 것이 있으면 모두 저장될 때까지 기다림
+    public void awaitWrittenForUser(Long userId) {
+        Set<Pending> pendings = unwrittenByUser.get(userId);
+        if (pendings == null) {
+            return;
+        }
+        for (Pending pending : List.copyOf(pendings)) {
+            await(pending);
+        }
+    }
+
+    public int queued() {
+        return unwritten.size();
+    }
+
+    public long syncFallbackCount() {
+        return syncFallbacks.get();
+    }
+
+    public long failedWriteCount() {
+        return failedWrites.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.refresh_token.writer.queued", this, RefreshTokenWriter::queued)
+                .description("Refresh tokens waiting in the write-behind queue")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh_token.writer.sync_fallbacks", syncFallbacks, AtomicLong::get)
+                .description("Write-behind issues saved synchronously because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("auth.refresh_token.writer.failed", failedWrites, AtomicLong::get)
+                .description("Refresh tokens the write-behind worker failed to save")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!isWriteBehind()) {
+            return;
+        }
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        //워커가 못 끝낸 나머지는 여기서 저장
+        while (!queue.isEmpty()) {
+            drainOnce();
+        }
+    }
+
+    private boolean isWriteBehind() {
+        return config.getMode() == RefreshTokenConfig.WriteBehind.Mode.WRITE_BEHIND;
+    }
+
+    //큐에 있으면 워커를 기다리지 않고 직접 내보내고, 다른 스레드가 쓰는 중이거나 아직 큐에 들어가기 전이면 future로 대기
+    //저장에 실패한 토큰이면 저장된 것처럼 넘어가지 않고 503
+    private void await(Pending pending) {
+        long waitMillis = Math.max(1, config.getFlushIntervalMillis());
+        while (true) {
+            if (!pending.written().isDone() && drainOnce()) {
+                continue;
+            }
+            try {
+                pending.written().get(waitMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // 다시 확인
+            } catch (ExecutionException e) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "refresh token not saved");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "refresh token not saved");
+            }
+        }
+    }
+
+    private void enqueue(Pending pending) {
+        unwritten.put(ByteBuffer.wrap(pending.hash()), pending);
+        unwrittenByUser.compute(pending.userId(), (userId, pendings) -> {
+            Set<Pending> set = pendings != null ? pendings : ConcurrentHashMap.newKeySet();
+            set.add(pending);
+            return set;
+        });
+        boolean queued;
+        try {
+            queued = queue.offer(pending, config.getOfferTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            //큐가 가득 참 -> 동기 저장으로 대체
+            syncFallbacks.incrementAndGet();
+            try {
+                write(List.of(pending));
+            } catch (RuntimeException e) {
+                failedWrites.incrementAndGet();
+                release(pending, e);
+                throw e;
+            }
+            release(pending, null);
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                Pending first = queue.poll(config.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                writeLock.lock();
+                try {
+                    List<Pending> batch = new ArrayList<>(config.getBatchSize());
+                    batch.add(first);
+                    queue.drainTo(batch, config.getBatchSize() - 1);
+                    writeAndRelease(batch);
+                } finally {
+                    writeLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("refresh token write-behind batch failed", e);
+            }
+        }
+    }
+
+    //하나라도 내보냈으면 true
+    private boolean drainOnce() {
+        writeLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>(config.getBatchSize());
+            queue.drainTo(batch, config.getBatchSize());
+            if (batch.isEmpty()) {
+                return false;
+            }
+            writeAndRelease(batch);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeAndRelease(List<Pending> batch) {
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            //한 행 때문에 배치 전체가 롤백됨 -> 나머지 토큰까지 잃지 않도록 한 행씩 각자 트랜잭션으로
+            log.warn("refresh token write-behind batch of {} failed, retrying one by one", batch.size(), e);
+            for (Pending pending : batch) {
+                writeOneAndRelease(pending);
+            }
+            return;
+        }
+        for (Pending pending : batch) {
+            release(pending, null);
+        }
+    }
+
+    private void writeOneAndRelease(Pending pending) {
+        try {
+            write(List.of(pending));
+        } catch (RuntimeException e) {
+            failedWrites.incrementAndGet();
+            log.error("refresh token write-behind failed for user {}", pending.userId(), e);
+            release(pending, e);
+            return;
+        }
+        release(pending, null);
+    }
+
+    //failure가 null이면 저장 성공
+    private void release(Pending pending, Throwable failure) {
+        unwritten.remove(ByteBuffer.wrap(pending.hash()), pending);
+        unwrittenByUser.computeIfPresent(pending.userId(), (userId, pendings) -> {
+            pendings.remove(pending);
+            return pendings.isEmpty() ? null : pendings;
+        });
+        if (failure == null) {
+            pending.written().complete(null);
+        } else {
+            pending.written().completeExceptionally(failure);
+        }
+    }
+
+    //배치 하나를 트랜잭션 하나로 -> hibernate.jdbc.batch_size 만큼 묶여서 INSERT
+    private void write(List<Pending> batch) {
+        requiresNew.executeWithoutResult(status -> {
+            for (Pending pending : batch) {
+                refreshTokens.save(toEntity(users.getReferenceById(pending.userId()), pending.familyId(),
+                        pending.hash(), pending.issuedAt(), pending.expiresAt()));
+            }
+        });
+    }
+
+    private static RefreshToken toEntity(UserEntity userEntity, UUID familyId, byte[] hash,
+                                         Instant issuedAt, Instant expiresAt) {
+        return RefreshToken.builder()
+                .userEntity(userEntity)
+                .token(hash)
+                .familyId(familyId)
+                .issuedAt(issuedAt)
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package hello.hackathon.store;
+
+import java.time.Instant;
+import java.util.UUID;
+
+//리프레시 토큰 상태 (저장소 구현과 무관한 값 객체)
+//hash: 토큰 SHA-256 32바이트, rotatedAt/revokedAt: 없으면 null
+//familyId: 로그인(기기) 한 번에서 시작된 회전 체인, 회전해도 그대로 이어진다. (이전 스키마의 토큰은 null)
+public record TokenState(byte[] hash, long userId, UUID familyId, Instant issuedAt, Instant expiresAt,
+                         Instant rotatedAt, Instant revokedAt) {
+
+    public static TokenState issued(long userId, UUID familyId, byte[] hash, Instant issuedAt, Instant expiresAt) {
+        return new TokenState(hash, userId, familyId, issuedAt, expiresAt, null, null);
+    }
+
+    //아직 회전/폐기되지 않은 토큰인지
+    public boolean isActive() {
+        return rotatedAt == null && revokedAt == null;
+    }
+
+    public TokenState withRotatedAt(Instant at) {
+        return new TokenState(hash, userId, familyId, issuedAt, expiresAt, at, revokedAt);
+    }
+
+    public TokenState withRevokedAt(Instant at) {
+        return new TokenState(hash, userId, familyId, issuedAt, expiresAt, rotatedAt, at);
+    }
+
+    //since 이후에 회전/폐기되었는지
+    public boolean inactiveSince(Instant since) {
+        return (rotatedAt != null && !rotatedAt.isBefore(since))
+                || (revokedAt != null && !revokedAt.isBefore(since));
+    }
+
+    //정리 대상인지 (만료/폐기 후 cutoff가 지남)
+    //회전만 된 토큰은 만료될 때까지 남긴다. (지우면 재사용 시 패밀리 폐기 없이 not found로 끝남)
+    public boolean isPurgeable(Instant cutoff) {
+        return expiresAt.isBefore(cutoff)
+                || (revokedAt != null && revokedAt.isBefore(cutoff));
+    }
+}
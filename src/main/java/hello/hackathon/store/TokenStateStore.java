@@ -0,0 +1,50 @@
+package hello.hackathon.store;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+//리프레시 토큰 상태 저장소 SPI
+//app.refresh-token.store.type 으로 구현을 고른다.
+//  jpa      - 기존 RefreshToken 테이블 (JpaTokenStateStore)
+//  memory   - 프로세스 내 lock-free 맵, 재시작하면 사라짐 (InMemoryTokenStateStore)
+//  embedded - H2 MVStore 파일 기반 키-값 저장소 (EmbeddedTokenStateStore)
+public interface TokenStateStore {
+
+    void issue(TokenState state);
+
+    Optional<TokenState> findByHash(byte[] hash);
+
+    //아직 회전/폐기되지 않은 토큰일 때만 rotatedAt을 기록 (compare-and-set) -> 기록했으면 true
+    boolean rotate(byte[] hash, Instant rotatedAt);
+
+    //아직 폐기되지 않은 토큰일 때만 revokedAt을 기록 -> 기록했으면 true
+    boolean revoke(byte[] hash, Instant revokedAt);
+
+    //유저의 가장 최근 발급 토큰을 폐기하고 그 토큰 상태를 반환
+    //fid 클레임이 없는 이전 액세스 토큰으로 로그아웃할 때만 (그 외에는 revokeFamily)
+    Optional<TokenState> revokeLatest(long userId, Instant revokedAt);
+
+    //이 유저의 세션 패밀리 하나(한 기기의 회전 체인)를 통째로 폐기 -> 폐기한 토큰 수
+    //로그아웃, 회전된 토큰 재사용 감지 시
+    long revokeFamily(long userId, UUID familyId, Instant revokedAt);
+
+    //유저의 모든 토큰 폐기 (모든 기기에서 로그아웃) -> 이번에 폐기한 토큰 중 아직 만료되지 않은 것 (폐기 후 상태)
+    //호출하는 쪽에서 RevocationIndex에 바로 반영하기 위함
+    List<TokenState> revokeAll(long userId, Instant revokedAt);
+
+    //살아 있는 패밀리(= 회전/폐기되지 않은 토큰)를 최근 발급 순으로 keep개만 남기고 나머지 폐기 -> 폐기한 토큰 수
+    //새 패밀리를 발급하기 직전에 keep = 상한 - 1로 호출
+    long revokeFamiliesBeyond(long userId, int keep, Instant revokedAt);
+
+    //만료/회전/폐기 후 cutoff가 지난 토큰 삭제 -> 삭제한 개수
+    long purge(Instant cutoff, int batchSize, int maxBatches);
+
+    //아직 만료되지 않은 회전/폐기 토큰 순회 (RevocationIndex 재구성용)
+    void forEachInactive(Instant now, Consumer<TokenState> consumer);
+
+    //since 이후에 회전/폐기된, 아직 만료되지 않은 토큰 순회 (RevocationFeed 폴링용)
+    void forEachInactiveSince(Instant since, Instant now, Consumer<TokenState> consumer);
+}
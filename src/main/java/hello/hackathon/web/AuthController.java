@@ -1,12 +1,17 @@
 package hello.hackathon.web;
 
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.AccessTokenResponse;
 import hello.hackathon.dto.LoginResponse;
+import hello.hackathon.dto.StatusResponse;
+import hello.hackathon.dto.TokenPairResponse;
 import hello.hackathon.service.AuthService;
 import hello.hackathon.service.TokenService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -14,7 +19,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
+import java.util.EnumMap;
+import java.util.Locale;
 import java.util.Map;
 
 //로그인 관련 컨트롤러
@@ -32,45 +40,82 @@ public class AuthController {
     //AuthController에서만 쓰이는 간단한 Dto라 굳이 Dto 클래스로 만들지 않고 record로 구현했습니다.
 
     //로그인 - 카카오 액세스 토큰을 받아 LoginResponse에 AccessToken, RefreshToken, 프로필 정보 반환
+    //Mono를 반환하면 스프링 MVC가 비동기 요청으로 처리 -> REACTIVE/VIRTUAL_THREADS 모드에서 톰캣 스레드를 바로 반납
     public record KakaoLoginRequest(@NotBlank String kakaoAccessToken){}
     @PostMapping("/kakao/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody KakaoLoginRequest kakaoLoginRequest){
-        LoginResponse response = authService.loginWithKakao(kakaoLoginRequest.kakaoAccessToken);
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody KakaoLoginRequest kakaoLoginRequest){
+        return authService.login(SocialProvider.KAKAO, kakaoLoginRequest.kakaoAccessToken)
+                .map(ResponseEntity::ok);
+    }
+
+    //로그인 - 제공자별 (kakao/naver/google: 액세스 토큰, apple: id_token)
+    public record SocialLoginRequest(@NotBlank String token){}
+    @PostMapping("/{provider}/login")
+    public Mono<ResponseEntity<LoginResponse>> socialLogin(@PathVariable String provider,
+                                                           @Valid @RequestBody SocialLoginRequest body){
+        return authService.login(providerOf(provider), body.token())
+                .map(ResponseEntity::ok);
+    }
+
+    //계정 연동 - 로그인한 유저에 다른 소셜 계정들을 붙인다. 예) {"accounts": {"naver": "...", "apple": "..."}}
+    public record LinkRequest(@NotEmpty Map<String, @NotBlank String> accounts){}
+    @PostMapping("/link")
+    public Mono<ResponseEntity<StatusResponse>> link(@RequestHeader(HttpHeaders.AUTHORIZATION)String accessToken,
+                                                     @Valid @RequestBody LinkRequest body){
+        Long uid = uidFromAccessToken(accessToken);
+        Map<SocialProvider, String> credentials = new EnumMap<>(SocialProvider.class);
+        body.accounts().forEach((provider, token) -> credentials.put(providerOf(provider), token));
+        return authService.link(uid, credentials)
+                .map(ResponseEntity::ok);
     }
 
     //Refresh Token 재발급(회전): 새 AT + 새 RT 발급 (기존 RT는 회전 처리)
     public record RefreshRequest(@NotBlank String refreshToken) {}
     @PostMapping("/token/refresh")
-    public ResponseEntity<Map<String,Object>> refresh(@Valid @RequestBody AuthController.RefreshRequest body){
-        Map<String,Object> pair = authService.refresh(body.refreshToken());
-        // pair = { accessToken, refreshToken, accessTtlSec, refreshTtlSec }
-        return ResponseEntity.ok(pair);
+    public ResponseEntity<TokenPairResponse> refresh(@Valid @RequestBody AuthController.RefreshRequest body){
+        return ResponseEntity.ok(authService.refresh(body.refreshToken()));
     }
 
     //Access Token만 재발급
     //AT만 재발급: RT는 그대로 유지 (무회전)
     public record AccessRequest(@NotBlank String refreshToken) {}
     @PostMapping("/token/access")
-    public ResponseEntity<Map<String,Object>> reissue(@Valid @RequestBody AccessRequest body){
-        Map<String,Object> out = authService.reissueAccessToken(body.refreshToken());
-        // out = { accessToken, accessTtlSec }
-        return ResponseEntity.ok(out);
+    public ResponseEntity<AccessTokenResponse> reissue(@Valid @RequestBody AccessRequest body){
+        return ResponseEntity.ok(authService.reissueAccessToken(body.refreshToken()));
     }
 
-    //로그아웃 - 액세스 토큰을 받은 뒤, 가장 최근에 발급된 리프레시 토큰도 폐기
+    //로그아웃 - 액세스 토큰을 받은 뒤, 이 기기의 세션 패밀리(리프레시 토큰 회전 체인)를 폐기
     @PostMapping("/logout")
-    public ResponseEntity<Map<String,String>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION)String accessToken){
+    public ResponseEntity<StatusResponse> logout(@RequestHeader(HttpHeaders.AUTHORIZATION)String accessToken){
+        Claims claims = accessTokenClaims(accessToken);
+        return ResponseEntity.ok(authService.logout(claims.get("uid", Long.class), tokenService.familyId(claims)));
+    }
+
+    //모든 기기에서 로그아웃 - 이 유저의 리프레시 토큰 전부 폐기
+    @PostMapping("/logout/all")
+    public ResponseEntity<StatusResponse> logoutAll(@RequestHeader(HttpHeaders.AUTHORIZATION)String accessToken){
         Long uid = uidFromAccessToken(accessToken);
-        return ResponseEntity.ok(authService.logout(uid));
+        return ResponseEntity.ok(authService.logoutAll(uid));
+    }
+
+    //경로/본문의 제공자 이름 -> enum (모르는 제공자는 404)
+    private static SocialProvider providerOf(String name) {
+        try {
+            return SocialProvider.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unsupported provider");
+        }
     }
 
     private Long uidFromAccessToken(String accessToken) {
+        return accessTokenClaims(accessToken).get("uid", Long.class);
+    }
+
+    private Claims accessTokenClaims(String accessToken) {
         if(accessToken == null || !accessToken.startsWith("Bearer ")){
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid access token");
         }
         String at =  accessToken.substring(7);
-        Claims claims = tokenService.parseAndValidate(at);
-        return claims.get("uid", Long.class);
+        return tokenService.parseAccess(at);
     }
 }
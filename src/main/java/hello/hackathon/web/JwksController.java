@@ -0,0 +1,29 @@
+package hello.hackathon.web;
+
+import hello.hackathon.config.JwtConfig;
+import hello.hackathon.service.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+//다른 서비스가 우리 토큰을 직접 검증할 수 있도록 ES256 공개키를 JWK Set으로 게시
+//새 키는 서명에 쓰이기 전부터 게시되므로 max-age 동안 캐싱해도 검증이 깨지지 않는다. (HS256 모드면 빈 keys)
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+    private final JwtKeyRing keyRing;
+    private final JwtConfig jwtConfig;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(jwtConfig.getJwksMaxAgeSeconds())).cachePublic())
+                .body(keyRing.jwks(Instant.now()));
+    }
+}
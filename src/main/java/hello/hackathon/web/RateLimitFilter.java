@@ -0,0 +1,337 @@
+package hello.hackathon.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import hello.hackathon.config.RateLimitConfig;
+import hello.hackathon.service.TokenHasher;
+import hello.hackathon.service.TokenService;
+import hello.hackathon.social.JsonFields;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//인증 엔드포인트 요청 수 제한 - 보안/컨트롤러보다 먼저, DB나 카카오까지 가기 전에 거절
+//규칙(app.rate-limit.rules)마다 클라이언트 IP별 + (선택) 리프레시 토큰/유저별 버킷
+//버킷은 GCRA: 다음 요청이 허용되는 이론상 시각(TAT) long 하나를 CAS로만 갱신 (락 없음)
+//버킷 저장소는 Caffeine - 최대 개수 제한 + 오래 안 쓰인 버킷 제거 (내부는 스트라이프된 버퍼 + ConcurrentHashMap)
+//넘치면 429 + Retry-After(초)
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+    private static final JsonFields REFRESH_TOKEN = JsonFields.of("/refreshToken");
+    //본문이 max-body-bytes보다 커서 토큰을 못 뽑은 요청끼리 같이 쓰는 subject (제한을 건너뛰지 못하게)
+    private static final Object UNKEYED = new Object();
+
+    private final RateLimitConfig config;
+    private final TokenService tokenService;
+    private final TokenHasher tokenHasher;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<CompiledRule> rules;
+    private final Cache<Key, Bucket> buckets;
+
+    public RateLimitFilter(RateLimitConfig config, TokenService tokenService, TokenHasher tokenHasher) {
+        this.config = config;
+        this.tokenService = tokenService;
+        this.tokenHasher = tokenHasher;
+        this.rules = config.getRules().stream().map(CompiledRule::new).toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(config.getIdleSeconds()))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !config.isEnabled() || rules.isEmpty() || !request.getRequestURI().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int index = match(request.getRequestURI());
+        if (index < 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompiledRule rule = rules.get(index);
+        long now = System.nanoTime();
+        HttpServletRequest forwarded = request;
+
+        if (rule.ip != null) {
+            long wait = acquire(new Key(index, clientIp(request)), rule.ip, now);
+            if (wait > 0) {
+                rule.ipRejected.increment();
+                reject(response, wait);
+                return;
+            }
+        }
+        if (rule.subjectRate != null) {
+            Object subject = null;
+            if (rule.subject == RateLimitConfig.Rule.Subject.REFRESH_TOKEN) {
+                CachedBodyRequest cached = CachedBodyRequest.of(request, config.getMaxBodyBytes());
+                if (cached == null) {
+                    subject = UNKEYED;
+                } else if (!cached.complete) {
+                    forwarded = cached;
+                    subject = UNKEYED;
+                } else {
+                    forwarded = cached;
+                    subject = refreshTokenHash(cached.body);
+                }
+            } else if (rule.subject == RateLimitConfig.Rule.Subject.USER) {
+                subject = userId(request.getHeader(HttpHeaders.AUTHORIZATION));
+            }
+            //본문은 읽었는데 토큰이 없는 요청(JSON이 아님 등)은 IP 제한만 받고 컨트롤러에서 400/401
+            if (subject != null) {
+                long wait = acquire(new Key(index, subject), rule.subjectRate, now);
+                if (wait > 0) {
+                    rule.subjectRejected.increment();
+                    reject(response, wait);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(forwarded, response);
+    }
+
+    //auth.rate_limit.rejected{rule, key=ip|subject}, auth.rate_limit.buckets
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CompiledRule rule : rules) {
+            FunctionCounter.builder("auth.rate_limit.rejected", rule.ipRejected, LongAdder::sum)
+                    .description("Requests rejected by the auth rate limiter")
+                    .tag("rule", rule.path).tag("key", "ip")
+                    .register(registry);
+            FunctionCounter.builder("auth.rate_limit.rejected", rule.subjectRejected, LongAdder::sum)
+                    .description("Requests rejected by the auth rate limiter")
+                    .tag("rule", rule.path).tag("key", "subject")
+                    .register(registry);
+        }
+        Gauge.builder("auth.rate_limit.buckets", buckets, Cache::estimatedSize)
+                .description("Rate limit buckets currently tracked")
+                .register(registry);
+    }
+
+    private int match(String uri) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (matcher.match(rules.get(i).path, uri)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //0이면 허용, 아니면 다시 시도할 수 있을 때까지 남은 나노초
+    private long acquire(Key key, Limit limit, long now) {
+        return buckets.get(key, k -> new Bucket()).tryAcquire(now, limit);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "rate limited");
+    }
+
+    //X-Forwarded-For의 왼쪽 값들은 클라이언트가 보낸 그대로라 매 요청 바꿔서 새 버킷을 받을 수 있다.
+    //-> 우리 프록시가 붙인 오른쪽에서 trusted-proxy-hops 번째 값만 믿는다. (값이 그보다 적으면 가장 왼쪽 값)
+    private String clientIp(HttpServletRequest request) {
+        if (config.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int end = forwardedFor.length();
+                int hops = Math.max(1, config.getTrustedProxyHops());
+                int comma = forwardedFor.lastIndexOf(',', end - 1);
+                while (--hops > 0 && comma >= 0) {
+                    end = comma;
+                    comma = forwardedFor.lastIndexOf(',', end - 1);
+                }
+                String ip = forwardedFor.substring(comma + 1, end).trim();
+                if (!ip.isEmpty()) {
+                    return ip;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private ByteBuffer refreshTokenHash(byte[] body) {
+        try {
+            String token = REFRESH_TOKEN.extract(body)[0];
+            return token == null || token.isBlank() ? null : ByteBuffer.wrap(tokenHasher.hash(token));
+        } catch (ResponseStatusException e) { // JSON이 아님
+            return null;
+        }
+    }
+
+    //검증은 TokenService 캐시를 타므로 같은 토큰의 반복 요청은 서명 검증 없이 끝난다.
+    private Long userId(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            Claims claims = tokenService.parseAccess(authorization.substring(7));
+            return claims.get("uid", Long.class);
+        } catch (ResponseStatusException e) {
+            return null;
+        }
+    }
+
+    //규칙 번호 + IP(String) / 토큰 해시(ByteBuffer) / uid(Long) / UNKEYED
+    private record Key(int rule, Object subject) {
+    }
+
+    //GCRA 버킷 - emission interval T = 1/rate, tolerance = T * (burst - 1)
+    //TAT가 now + tolerance를 넘으면 거절, 아니면 TAT = max(TAT, now) + T
+    static final class Bucket {
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+        long tryAcquire(long now, Limit limit) {
+            while (true) {
+                long current = tat.get();
+                long base = Math.max(current, now);
+                long wait = base - limit.toleranceNanos - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (tat.compareAndSet(current, base + limit.intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    record Limit(long intervalNanos, long toleranceNanos) {
+        static Limit of(RateLimitConfig.Rate rate) {
+            if (rate == null) {
+                return null;
+            }
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate.getPerSecond());
+            return new Limit(interval, interval * Math.max(0, rate.getBurst() - 1));
+        }
+    }
+
+    private static final class CompiledRule {
+        final String path;
+        final Limit ip;
+        final RateLimitConfig.Rule.Subject subject;
+        final Limit subjectRate;
+        final LongAdder ipRejected = new LongAdder();
+        final LongAdder subjectRejected = new LongAdder();
+
+        CompiledRule(RateLimitConfig.Rule rule) {
+            this.path = rule.getPath();
+            this.ip = Limit.of(rule.getIp());
+            this.subject = rule.getSubject();
+            this.subjectRate = rule.getSubject() == RateLimitConfig.Rule.Subject.NONE ? null : Limit.of(rule.getSubjectRate());
+        }
+    }
+
+    //본문을 한 번 읽어 두고 컨트롤러에는 같은 바이트를 다시 준다.
+    //complete = false: max를 넘어서 앞부분만 읽음 -> 컨트롤러에는 읽은 앞부분 + 원래 스트림의 나머지
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        private final boolean complete;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body, boolean complete) {
+            super(request);
+            this.body = body;
+            this.complete = complete;
+        }
+
+        //Content-Length가 max보다 크면 null (읽지 않음)
+        //길이를 모르면(chunked) max + 1바이트까지 읽어 보고 넘치면 complete = false
+        static CachedBodyRequest of(HttpServletRequest request, int maxBytes) throws IOException {
+            long length = request.getContentLengthLong();
+            if (length > maxBytes) {
+                return null;
+            }
+            byte[] body = request.getInputStream().readNBytes(length < 0 ? maxBytes + 1 : (int) length);
+            return new CachedBodyRequest(request, body, body.length <= maxBytes);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            InputStream in = complete ? new ByteArrayInputStream(body)
+                    : new SequenceInputStream(new ByteArrayInputStream(body), super.getInputStream());
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    try {
+                        return in.available() == 0;
+                    } catch (IOException e) {
+                        return true;
+                    }
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() throws IOException {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return complete ? body.length : super.getContentLength();
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return complete ? body.length : super.getContentLengthLong();
+        }
+    }
+}
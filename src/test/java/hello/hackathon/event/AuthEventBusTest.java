@@ -0,0 +1,121 @@
+package hello.hackathon.event;
+
+import hello.hackathon.config.AuthEventConfig;
+import hello.hackathon.domain.SocialProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthEventBusTest {
+
+    @Test
+    void deliversEveryEventFromConcurrentProducersInBatches() throws Exception {
+        CollectingSink sink = new CollectingSink();
+        AuthEventBus bus = new AuthEventBus(config(1024, 64), Optional.of(sink));
+        bus.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            long userId = t;
+            pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    //링이 가득 찼으면 소비 스레드가 비울 때까지 다시 (테스트에서만)
+                    while (!bus.publish(AuthEventType.LOGIN_EXISTING, userId, SocialProvider.KAKAO, null)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        bus.shutdown();
+
+        assertThat(sink.events).hasSize(2000);
+        assertThat(sink.events).allSatisfy(e -> {
+            assertThat(e.getType()).isEqualTo(AuthEventType.LOGIN_EXISTING);
+            assertThat(e.getProvider()).isEqualTo(SocialProvider.KAKAO);
+        });
+        assertThat(sink.events.stream().filter(e -> e.getUserId() == 3L)).hasSize(500);
+        assertThat(sink.largestBatch).isLessThanOrEqualTo(64);
+        assertThat(bus.backlog()).isZero();
+    }
+
+    @Test
+    void dropsAndCountsInsteadOfBlockingWhenSinkIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingSink sink = new CollectingSink() {
+            @Override
+            public void write(List<AuthEvent> batch) throws Exception {
+                release.await();
+                super.write(batch);
+            }
+        };
+        AuthEventBus bus = new AuthEventBus(config(4, 4), Optional.of(sink));
+        bus.start();
+
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (bus.publish(AuthEventType.REFRESH_REJECTED, null, null, "refresh revoked")) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        bus.shutdown();
+
+        assertThat(accepted).isLessThanOrEqualTo(4);
+        assertThat(bus.droppedCount()).isEqualTo(20 - accepted);
+        assertThat(sink.events).hasSize(accepted);
+        assertThat(sink.events).allSatisfy(e -> assertThat(e.getDetail()).isEqualTo("refresh revoked"));
+    }
+
+    @Test
+    void countsEventsLostToSinkFailure() throws Exception {
+        AuthEventBus bus = new AuthEventBus(config(16, 16), Optional.of(batch -> {
+            throw new IllegalStateException("disk full");
+        }));
+        bus.publish(AuthEventType.LOGOUT, 1L, null, null);
+        bus.publish(AuthEventType.LOGOUT, 2L, null, null);
+        bus.start();
+        bus.shutdown();
+
+        assertThat(bus.failedCount()).isEqualTo(2);
+        assertThat(bus.backlog()).isZero();
+    }
+
+    @Test
+    void disabledWithoutSink() {
+        AuthEventBus bus = new AuthEventBus(config(16, 16), Optional.empty());
+
+        assertThat(bus.publish(AuthEventType.LOGOUT, 1L, null, null)).isFalse();
+        assertThat(bus.droppedCount()).isZero();
+    }
+
+    private static AuthEventConfig config(int capacity, int batchSize) {
+        AuthEventConfig config = new AuthEventConfig();
+        config.setCapacity(capacity);
+        config.setBatchSize(batchSize);
+        config.setFlushIntervalMillis(5);
+        return config;
+    }
+
+    private static class CollectingSink implements AuthEventSink {
+        final List<AuthEvent> events = new CopyOnWriteArrayList<>();
+        volatile int largestBatch;
+
+        @Override
+        public void write(List<AuthEvent> batch) throws Exception {
+            largestBatch = Math.max(largestBatch, batch.size());
+            for (AuthEvent event : batch) {
+                events.add(event.copy()); // 슬롯은 재사용되므로 복사해서 보관
+            }
+        }
+    }
+}
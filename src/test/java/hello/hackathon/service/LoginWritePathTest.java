@@ -0,0 +1,83 @@
+package hello.hackathon.service;
+
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.LoginResponse;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.social.SocialProfileClient;
+import hello.hackathon.social.SocialProfileClients;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+//로그인 한 번에 DB로 나가는 statement 수 확인
+@SpringBootTest
+@ActiveProfiles("test")
+class LoginWritePathTest {
+    @Autowired
+    AuthService authService;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @MockitoBean
+    SocialProfileClients socialProfileClients;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        given(socialProfileClients.get(SocialProvider.KAKAO)).willReturn(new SocialProfileClient() {
+            @Override
+            public SocialProvider provider() {
+                return SocialProvider.KAKAO;
+            }
+
+            @Override
+            public Mono<SocialProfile> fetchProfile(String credential) {
+                return Mono.just(profile(credential));
+            }
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        authService.loginWith(SocialProvider.KAKAO, "warm-up"); // 시퀀스 블록을 미리 확보해서 측정에서 제외
+    }
+
+    @Test
+    void newUserLoginIsWrittenInOneFlush() {
+        statistics.clear();
+
+        LoginResponse response = authService.loginWith(SocialProvider.KAKAO, "new-user");
+
+        assertThat(response.isNew()).isTrue();
+        assertThat(statistics.getFlushCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        // select social_account + insert user_entity / social_account / refresh_token
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void existingUserLoginInsertsOnlyRefreshToken() {
+        authService.loginWith(SocialProvider.KAKAO, "returning-user");
+        statistics.clear();
+
+        LoginResponse response = authService.loginWith(SocialProvider.KAKAO, "returning-user-again");
+
+        assertThat(response.isNew()).isFalse();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        // select social_account join user_entity + 세션 패밀리 상한 정리 update + insert refresh_token
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    //"returning-user-again"도 같은 카카오 계정으로 보이도록 접미사는 무시
+    private static SocialProfile profile(String kakaoAccessToken) {
+        return new SocialProfile(SocialProvider.KAKAO, "kakao-" + kakaoAccessToken.replace("-again", ""),
+                kakaoAccessToken + "@example.com", kakaoAccessToken, null, null);
+    }
+}
@@ -0,0 +1,89 @@
+package hello.hackathon.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//이전 hex token 컬럼 -> token_hash 바이너리 컬럼 (배치 크기보다 많은 행, 값이 겹치는 이전 행)
+//이전 컬럼을 추가/삭제하므로 다른 테스트 컨텍스트와 DB를 나눠 쓰지 않는다
+@SpringBootTest(properties = {
+        "app.refresh-token.migration-batch-size=2",
+        "spring.datasource.url=jdbc:h2:mem:hash-migration;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class RefreshTokenHashMigrationTest {
+    private static final long FIRST_ID = 9_000_000;
+    private static final HexFormat HEX = HexFormat.of();
+
+    @Autowired
+    RefreshTokenHashMigration migration;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    //create-drop 스키마에는 이전 컬럼이 없으므로 테스트 동안만 만든다
+    @BeforeEach
+    void addLegacyColumn() {
+        jdbcTemplate.execute("alter table refresh_token add column token varchar(64)");
+    }
+
+    @AfterEach
+    void dropLegacyColumn() {
+        jdbcTemplate.update("delete from refresh_token where id >= ?", FIRST_ID);
+        jdbcTemplate.execute("alter table refresh_token drop column token");
+    }
+
+    @Test
+    void legacyHexValuesAreMovedToBinaryColumnInBatches() {
+        for (int i = 1; i <= 5; i++) {
+            insertLegacy(FIRST_ID + i, hex(i));
+        }
+
+        migration.afterSingletonsInstantiated();
+
+        for (int i = 1; i <= 5; i++) {
+            assertThat(tokenHash(FIRST_ID + i)).isEqualTo(HEX.parseHex(hex(i)));
+        }
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from refresh_token where token is not null and token_hash is null", Integer.class)).isZero();
+    }
+
+    @Test
+    void duplicateLegacyValuesKeepOnlyTheNewestRow() {
+        //jti가 없던 시절 같은 초에 발급된 토큰 -> 값이 같은 행 세 개
+        insertLegacy(FIRST_ID + 1, hex(1));
+        insertLegacy(FIRST_ID + 2, hex(2));
+        insertLegacy(FIRST_ID + 3, hex(1));
+        insertLegacy(FIRST_ID + 4, hex(1));
+
+        migration.afterSingletonsInstantiated(); // 유니크 인덱스에 걸리지 않고 끝나야 함
+
+        assertThat(jdbcTemplate.queryForList(
+                "select id from refresh_token where id >= ? order by id", Long.class, FIRST_ID))
+                .containsExactly(FIRST_ID + 2, FIRST_ID + 4);
+        assertThat(tokenHash(FIRST_ID + 4)).isEqualTo(HEX.parseHex(hex(1)));
+        assertThat(tokenHash(FIRST_ID + 2)).isEqualTo(HEX.parseHex(hex(2)));
+    }
+
+    private void insertLegacy(long id, String hex) {
+        jdbcTemplate.update("insert into refresh_token (id, token, issued_at, expires_at, version) "
+                + "values (?, ?, current_timestamp, dateadd('DAY', 1, current_timestamp), 0)", id, hex);
+    }
+
+    private byte[] tokenHash(long id) {
+        return jdbcTemplate.queryForObject("select token_hash from refresh_token where id = ?", byte[].class, id);
+    }
+
+    private static String hex(int seed) {
+        byte[] hash = new byte[32];
+        hash[31] = (byte) seed;
+        return HEX.formatHex(hash);
+    }
+}
@@ -0,0 +1,77 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import hello.hackathon.config.ReissueConfig;
+import hello.hackathon.store.InMemoryTokenStateStore;
+import hello.hackathon.store.TokenState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//trusted reissue가 인덱스를 믿어도 되는지 (isFresh) - 재구성 전/후, 인덱스가 가득 찼을 때
+class RevocationFeedTest {
+    private final InMemoryTokenStateStore store = new InMemoryTokenStateStore();
+    private final ReissueConfig reissueConfig = new ReissueConfig();
+
+    @Test
+    void fullIndexIsRebuiltOnceEntriesExpireAndFeedRecovers() throws InterruptedException {
+        reissueConfig.setMode(ReissueConfig.Mode.TRUSTED);
+        RevocationIndex index = index(2, 4);
+        RevocationFeed feed = new RevocationFeed(store, index, reissueConfig);
+        RevocationIndexLoader loader = new RevocationIndexLoader(store, index, feed, reissueConfig);
+        loader.rebuild();
+        feed.poll();
+        assertThat(feed.isFresh()).isTrue();
+
+        //2 -> 4로 늘어난 뒤 가득 참 (그중 둘은 곧 만료)
+        Instant now = Instant.now();
+        Instant soon = now.plusSeconds(2);
+        index.markRotated(hash(1), now.plusSeconds(600));
+        index.markRotated(hash(2), now.plusSeconds(600));
+        index.markRotated(hash(3), soon);
+        index.markRotated(hash(4), soon);
+        assertThat(index.capacity()).isEqualTo(4);
+        assertThat(index.isComplete()).isTrue();
+
+        byte[] dropped = rotated(5, now.plusSeconds(600));
+        index.markRotated(dropped, now.plusSeconds(600));
+        assertThat(index.overflowCount()).isEqualTo(1);
+        assertThat(index.lookup(dropped)).isNull();
+        assertThat(feed.isFresh()).isFalse();
+
+        //만료된 엔트리가 비워질 수 있게 된 뒤 다시 채우면 빠졌던 토큰도 들어가고 trusted 경로로 돌아온다
+        while (Instant.now().getEpochSecond() < soon.getEpochSecond()) {
+            Thread.sleep(50);
+        }
+        loader.rebuildIfIncomplete();
+
+        assertThat(index.isComplete()).isTrue();
+        assertThat(index.lookup(dropped)).isEqualTo(RevocationIndex.State.ROTATED);
+        assertThat(feed.isFresh()).isTrue();
+    }
+
+    private byte[] rotated(int seed, Instant expiresAt) {
+        byte[] hash = hash(seed);
+        Instant now = Instant.now();
+        store.issue(TokenState.issued(1L, UUID.randomUUID(), hash, now, expiresAt));
+        store.rotate(hash, now);
+        return hash;
+    }
+
+    private static RevocationIndex index(int capacity, int maxCapacity) {
+        RefreshTokenConfig config = new RefreshTokenConfig();
+        config.getRevocationIndex().setCapacity(capacity);
+        config.getRevocationIndex().setMaxCapacity(maxCapacity);
+        return new RevocationIndex(config);
+    }
+
+    private static byte[] hash(int seed) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) seed;
+        hash[8] = (byte) seed;
+        return hash;
+    }
+}
@@ -0,0 +1,86 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//회전/폐기 토큰 인메모리 인덱스: 조회, 폐기 우선, 패밀리, 만료 엔트리 정리
+class RevocationIndexTest {
+    private final Instant later = Instant.now().plusSeconds(600);
+
+    @Test
+    void knownTokensAreFoundAndRevokedWinsOverRotated() {
+        RevocationIndex index = index(true, 16, 16);
+        byte[] rotated = hash(1);
+        byte[] revoked = hash(2);
+
+        index.markRotated(rotated, later);
+        index.markRotated(revoked, later);
+        index.markRevoked(revoked, later);
+        index.markRotated(revoked, later); // 폐기된 토큰이 다시 회전으로 돌아가지 않음
+
+        assertThat(index.lookup(rotated)).isEqualTo(RevocationIndex.State.ROTATED);
+        assertThat(index.lookup(revoked)).isEqualTo(RevocationIndex.State.REVOKED);
+        assertThat(index.lookup(hash(3))).isNull();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void revokedFamiliesAreTrackedSeparatelyFromTokens() {
+        RevocationIndex index = index(true, 16, 16);
+        UUID family = UUID.randomUUID();
+
+        index.markFamilyRevoked(family, later);
+
+        assertThat(index.isFamilyRevoked(family)).isTrue();
+        assertThat(index.isFamilyRevoked(UUID.randomUUID())).isFalse();
+        assertThat(index.isFamilyRevoked(null)).isFalse();
+    }
+
+    @Test
+    void expiredEntriesAreDroppedWhenFullBeforeGrowing() {
+        RevocationIndex index = index(true, 2, 4);
+        Instant expired = Instant.now().minusSeconds(1);
+        index.markRotated(hash(1), expired);
+        index.markRotated(hash(2), expired);
+
+        index.markRotated(hash(3), later);
+
+        assertThat(index.lookup(hash(1))).isNull();
+        assertThat(index.lookup(hash(3))).isEqualTo(RevocationIndex.State.ROTATED);
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.capacity()).isEqualTo(2);
+        assertThat(index.overflowCount()).isZero();
+    }
+
+    @Test
+    void disabledIndexKnowsNothing() {
+        RevocationIndex index = index(false, 16, 16);
+
+        index.markRevoked(hash(1), later);
+        index.markFamilyRevoked(UUID.randomUUID(), later);
+
+        assertThat(index.lookup(hash(1))).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    private static RevocationIndex index(boolean enabled, int capacity, int maxCapacity) {
+        RefreshTokenConfig config = new RefreshTokenConfig();
+        config.getRevocationIndex().setEnabled(enabled);
+        config.getRevocationIndex().setCapacity(capacity);
+        config.getRevocationIndex().setMaxCapacity(maxCapacity);
+        return new RevocationIndex(config);
+    }
+
+    //인덱스는 해시 앞 16바이트를 키로 쓴다
+    private static byte[] hash(int seed) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) seed;
+        hash[8] = (byte) seed;
+        return hash;
+    }
+}
@@ -0,0 +1,130 @@
+package hello.hackathon.service;
+
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.LoginResponse;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.dto.TokenPairResponse;
+import hello.hackathon.social.SocialProfileClient;
+import hello.hackathon.social.SocialProfileClients;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+//세션 패밀리: 기기별 회전 체인, 유저당 상한, 재사용 감지 / 로그아웃 시 일괄 폐기
+@SpringBootTest(properties = "app.refresh-token.max-families-per-user=2")
+@ActiveProfiles("test")
+class SessionFamilyTest {
+    @Autowired
+    AuthService authService;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    RevocationIndex revocationIndex;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @MockitoBean
+    SocialProfileClients socialProfileClients;
+
+    @BeforeEach
+    void setUp() {
+        given(socialProfileClients.get(SocialProvider.KAKAO)).willReturn(new SocialProfileClient() {
+            @Override
+            public SocialProvider provider() {
+                return SocialProvider.KAKAO;
+            }
+
+            //"user-1#phone", "user-1#tablet"은 같은 카카오 계정 (# 뒤는 기기 구분용)
+            @Override
+            public Mono<SocialProfile> fetchProfile(String credential) {
+                String account = credential.substring(0, credential.indexOf('#'));
+                return Mono.just(new SocialProfile(SocialProvider.KAKAO, "kakao-" + account,
+                        account + "@example.com", account, null, null));
+            }
+        });
+    }
+
+    @Test
+    void rotationKeepsFamilyAndReuseRevokesIt() {
+        LoginResponse login = authService.loginWith(SocialProvider.KAKAO, unique() + "#phone");
+        UUID familyId = familyOf(login.getRefreshToken());
+
+        TokenPairResponse rotated = authService.refresh(login.getRefreshToken());
+        assertThat(familyOf(rotated.refreshToken())).isEqualTo(familyId);
+        assertThat(familyOf(rotated.accessToken())).isEqualTo(familyId);
+
+        //이미 회전된 토큰 재사용 -> 거절 + 그 패밀리의 최신 토큰까지 폐기
+        assertRejected(() -> authService.refresh(login.getRefreshToken()), "refresh already rotated");
+        assertRejected(() -> authService.refresh(rotated.refreshToken()), "refresh revoked");
+    }
+
+    @Test
+    void logoutRevokesOnlyThisDevicesFamily() {
+        String account = unique();
+        LoginResponse phone = authService.loginWith(SocialProvider.KAKAO, account + "#phone");
+        LoginResponse tablet = authService.loginWith(SocialProvider.KAKAO, account + "#tablet");
+        TokenPairResponse phoneRotated = authService.refresh(phone.getRefreshToken());
+
+        authService.logout(phone.getUser().getId(), familyOf(phoneRotated.accessToken()));
+
+        assertRejected(() -> authService.refresh(phoneRotated.refreshToken()), "refresh revoked");
+        assertThat(authService.refresh(tablet.getRefreshToken()).refreshToken()).isNotBlank();
+    }
+
+    @Test
+    void logoutAllIsOneSelectAndOneUpdateAndMarksIndex() {
+        String account = unique();
+        LoginResponse phone = authService.loginWith(SocialProvider.KAKAO, account + "#phone");
+        LoginResponse tablet = authService.loginWith(SocialProvider.KAKAO, account + "#tablet");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        authService.reissueAccessToken(phone.getRefreshToken()); // 유저 요약 캐시 채우기
+        statistics.clear();
+
+        authService.logoutAll(phone.getUser().getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(revocationIndex.isFamilyRevoked(familyOf(phone.getRefreshToken()))).isTrue();
+        assertThat(revocationIndex.isFamilyRevoked(familyOf(tablet.getRefreshToken()))).isTrue();
+        assertRejected(() -> authService.refresh(phone.getRefreshToken()), "refresh revoked");
+        assertRejected(() -> authService.refresh(tablet.getRefreshToken()), "refresh revoked");
+    }
+
+    @Test
+    void oldestFamilyIsEvictedBeyondCap() {
+        String account = unique();
+        LoginResponse first = authService.loginWith(SocialProvider.KAKAO, account + "#phone");
+        LoginResponse second = authService.loginWith(SocialProvider.KAKAO, account + "#tablet");
+        LoginResponse third = authService.loginWith(SocialProvider.KAKAO, account + "#laptop");
+
+        assertRejected(() -> authService.refresh(first.getRefreshToken()), "refresh revoked");
+        assertThat(authService.refresh(second.getRefreshToken()).refreshToken()).isNotBlank();
+        assertThat(authService.refresh(third.getRefreshToken()).refreshToken()).isNotBlank();
+    }
+
+    private UUID familyOf(String jwt) {
+        return tokenService.familyId(tokenService.parseAndValidate(jwt));
+    }
+
+    private static String unique() {
+        return "user-" + UUID.randomUUID();
+    }
+
+    private static void assertRejected(Runnable call, String reason) {
+        assertThatThrownBy(call::run)
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getReason()).isEqualTo(reason));
+    }
+}
@@ -0,0 +1,73 @@
+package hello.hackathon.service;
+
+import hello.hackathon.config.JwtConfig;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//액세스/리프레시 토큰 구분 - typ 클레임, typ이 없는 이전 형식은 모양으로
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenTypeTest {
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    JwtKeyRing keyRing;
+    @Autowired
+    JwtConfig jwtConfig;
+
+    @Test
+    void currentTokensAreOnlyAcceptedForTheirOwnPath() {
+        String access = tokenService.createAccess(1L, "a@example.com", "a", UUID.randomUUID());
+        String refresh = tokenService.createRefresh(1L, "a@example.com", "a", UUID.randomUUID());
+
+        assertThat(tokenService.parseAccess(access).get("uid", Long.class)).isEqualTo(1L);
+        assertThat(tokenService.parseRefresh(refresh).get("uid", Long.class)).isEqualTo(1L);
+        assertRejected(() -> tokenService.parseRefresh(access), "invalid refresh token");
+        assertRejected(() -> tokenService.parseAccess(refresh), "invalid token");
+    }
+
+    @Test
+    void untypedTokensAreClassifiedByShape() {
+        //처음 형식: 리프레시는 uid만, 액세스는 uid/email/name
+        String uidOnlyRefresh = legacy(false).claim("uid", 1L).compact();
+        String legacyAccess = legacy(false).claim("uid", 1L).claim("email", "a@example.com").claim("name", "a").compact();
+        //jti를 넣기 시작한 뒤의 리프레시 (email/name도 있음)
+        String jtiRefresh = legacy(true).claim("uid", 1L).claim("email", "a@example.com").claim("name", "a").compact();
+
+        assertThat(tokenService.parseRefresh(uidOnlyRefresh).get("uid", Long.class)).isEqualTo(1L);
+        assertThat(tokenService.parseRefresh(jtiRefresh).get("uid", Long.class)).isEqualTo(1L);
+        assertThat(tokenService.parseAccess(legacyAccess).get("uid", Long.class)).isEqualTo(1L);
+        assertRejected(() -> tokenService.parseAccess(uidOnlyRefresh), "invalid token");
+        assertRejected(() -> tokenService.parseAccess(jtiRefresh), "invalid token");
+        assertRejected(() -> tokenService.parseRefresh(legacyAccess), "invalid refresh token");
+    }
+
+    private JwtBuilder legacy(boolean withJti) {
+        Instant now = Instant.now();
+        JwtBuilder builder = Jwts.builder()
+                .setIssuer(jwtConfig.getIssuer())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plusSeconds(600)))
+                .signWith(keyRing.hmacKey(), SignatureAlgorithm.HS256);
+        return withJti ? builder.setId(UUID.randomUUID().toString()) : builder;
+    }
+
+    private static void assertRejected(Runnable call, String reason) {
+        assertThatThrownBy(call::run)
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getReason()).isEqualTo(reason));
+    }
+}
@@ -0,0 +1,123 @@
+package hello.hackathon.service;
+
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.LoginResponse;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.social.SocialProfileClient;
+import hello.hackathon.social.SocialProfileClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+
+//trusted reissue: feed/인덱스가 최신이면 DB 없이, 재구성 전이면 DB 경로, 폐기된 패밀리는 거절
+//feed가 계속 폴링하므로 다른 테스트 컨텍스트가 종료하며 지우는(create-drop) 공용 인메모리 DB와 분리
+@SpringBootTest(properties = {
+        "app.reissue.mode=trusted",
+        "spring.datasource.url=jdbc:h2:mem:trusted-reissue;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class TrustedReissueTest {
+    @Autowired
+    AuthService authService;
+    @Autowired
+    TokenService tokenService;
+    @Autowired
+    RevocationFeed revocationFeed;
+    @Autowired
+    RevocationIndexLoader revocationIndexLoader;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @MockitoBean
+    SocialProfileClients socialProfileClients;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        given(socialProfileClients.get(SocialProvider.KAKAO)).willReturn(new SocialProfileClient() {
+            @Override
+            public SocialProvider provider() {
+                return SocialProvider.KAKAO;
+            }
+
+            @Override
+            public Mono<SocialProfile> fetchProfile(String credential) {
+                return Mono.just(new SocialProfile(SocialProvider.KAKAO, "kakao-" + credential,
+                        credential + "@example.com", credential, null, null));
+            }
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        revocationFeed.poll();
+    }
+
+    @Test
+    void freshFeedReissuesWithoutReadingTheDatabase() {
+        LoginResponse login = authService.loginWith(SocialProvider.KAKAO, unique());
+        assertThat(revocationFeed.isFresh()).isTrue();
+        double trustedBefore = reissues("trusted");
+        statistics.clear();
+
+        String access = authService.reissueAccessToken(login.getRefreshToken()).accessToken();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(reissues("trusted")).isEqualTo(trustedBefore + 1);
+        assertThat(tokenService.parseAccess(access).get("uid", Long.class)).isEqualTo(login.getUser().getId());
+    }
+
+    @Test
+    void indexBeingRebuiltFallsBackToTheDatabase() {
+        LoginResponse login = authService.loginWith(SocialProvider.KAKAO, unique());
+        revocationFeed.markIndexRebuilding();
+        try {
+            assertThat(revocationFeed.isFresh()).isFalse();
+            double dbBefore = reissues("db");
+            statistics.clear();
+
+            authService.reissueAccessToken(login.getRefreshToken());
+
+            assertThat(statistics.getPrepareStatementCount()).isPositive();
+            assertThat(reissues("db")).isEqualTo(dbBefore + 1);
+        } finally {
+            revocationIndexLoader.rebuild();
+        }
+        assertThat(revocationFeed.isFresh()).isTrue();
+    }
+
+    @Test
+    void loggedOutFamilyIsRejectedOnTheTrustedPath() {
+        LoginResponse login = authService.loginWith(SocialProvider.KAKAO, unique());
+        UUID familyId = tokenService.familyId(tokenService.parseRefresh(login.getRefreshToken()));
+
+        authService.logout(login.getUser().getId(), familyId);
+
+        assertThat(revocationFeed.isFresh()).isTrue();
+        assertThatThrownBy(() -> authService.reissueAccessToken(login.getRefreshToken()))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getReason()).isEqualTo("refresh revoked"));
+    }
+
+    private double reissues(String path) {
+        return meterRegistry.get("auth.reissue.path").tag("path", path).counter().count();
+    }
+
+    private static String unique() {
+        return "user-" + UUID.randomUUID();
+    }
+}
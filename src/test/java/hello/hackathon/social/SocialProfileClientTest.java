@@ -0,0 +1,185 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialHttpConfig;
+import hello.hackathon.config.SocialProviderConfig;
+import hello.hackathon.config.SocialResilienceConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.service.AuthMetrics;
+import hello.hackathon.support.StubHttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//제공자별 응답 파싱 확인 - 실제 API 대신 로컬 스텁 서버
+class SocialProfileClientTest {
+    StubHttpServer stub;
+    SocialHttpClient http;
+    SocialProviderConfig providerConfig;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+        SocialHttpConfig httpConfig = new SocialHttpConfig();
+        httpConfig.setMetricsEnabled(false);
+        AuthMetrics metrics = new AuthMetrics(new SimpleMeterRegistry());
+        http = new SocialHttpClient(WebClient.builder(), httpConfig,
+                new UpstreamGuard(new SocialResilienceConfig(), metrics), metrics);
+        providerConfig = new SocialProviderConfig();
+        providerConfig.getKakao().setUserinfoUri(stub.url("/kakao"));
+        providerConfig.getNaver().setUserinfoUri(stub.url("/naver"));
+        providerConfig.getGoogle().setUserinfoUri(stub.url("/google"));
+        providerConfig.getApple().setKeysUri(stub.url("/apple/keys"));
+        providerConfig.getApple().setClientId("hello.hackathon");
+    }
+
+    @AfterEach
+    void tearDown() {
+        http.close();
+        stub.close();
+    }
+
+    @Test
+    void kakaoReadsNestedAccountFields() {
+        stub.respond("/kakao", 200, """
+                {"id": 1234, "connected_at": "2024-01-01T00:00:00Z",
+                 "properties": {"nickname": "ignored"},
+                 "kakao_account": {"profile_needs_agreement": false,
+                   "profile": {"nickname": "춘식", "profile_image_url": "http://img/p.jpg",
+                               "thumbnail_image_url": "http://img/t.jpg", "is_default_image": false},
+                   "email": "chun@kakao.com", "scopes": ["a", "b"]}}
+                """);
+
+        SocialProfile profile = new KakaoProfileClient(http, providerConfig).fetchProfile("kakao-at").block();
+
+        assertThat(profile).isEqualTo(new SocialProfile(SocialProvider.KAKAO, "1234", "chun@kakao.com", "춘식",
+                "http://img/p.jpg", "http://img/t.jpg"));
+        assertThat(stub.lastAuthorization()).isEqualTo("Bearer kakao-at");
+    }
+
+    @Test
+    void naverReadsResponseObject() {
+        stub.respond("/naver", 200, """
+                {"resultcode": "00", "message": "success",
+                 "response": {"id": "nv-1", "email": "a@naver.com", "nickname": "네이버",
+                              "profile_image": "http://img/n.jpg", "email_verified": null}}
+                """);
+
+        SocialProfile profile = new NaverProfileClient(http, providerConfig).fetchProfile("naver-at").block();
+
+        assertThat(profile).isEqualTo(new SocialProfile(SocialProvider.NAVER, "nv-1", "a@naver.com", "네이버",
+                "http://img/n.jpg", null));
+    }
+
+    @Test
+    void googleReadsOpenIdClaims() {
+        stub.respond("/google", 200, """
+                {"sub": "g-1", "email": "a@gmail.com", "email_verified": true,
+                 "name": "Google User", "picture": "http://img/g.jpg", "locale": "ko"}
+                """);
+
+        SocialProfile profile = new GoogleProfileClient(http, providerConfig).fetchProfile("google-at").block();
+
+        assertThat(profile).isEqualTo(new SocialProfile(SocialProvider.GOOGLE, "g-1", "a@gmail.com", "Google User",
+                "http://img/g.jpg", null));
+    }
+
+    @Test
+    void upstreamErrorKeepsStatus() {
+        stub.respond("/kakao", 401, "{\"msg\": \"this access token does not exist\", \"code\": -401}");
+
+        assertThatThrownBy(() -> new KakaoProfileClient(http, providerConfig).fetchProfile("expired").block())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(401));
+    }
+
+    @Test
+    void appleVerifiesIdTokenAgainstJwks() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        stub.respond("/apple/keys", 200, jwks("k1", (RSAPublicKey) keyPair.getPublic()));
+        AppleProfileClient apple = new AppleProfileClient(http, providerConfig);
+
+        SocialProfile profile = apple.fetchProfile(idToken(keyPair, "k1", "hello.hackathon")).block();
+        apple.fetchProfile(idToken(keyPair, "k1", "hello.hackathon")).block();
+
+        assertThat(profile).isEqualTo(new SocialProfile(SocialProvider.APPLE, "apple-user", "a@privaterelay.appleid.com",
+                null, null, null));
+        assertThat(stub.hits("/apple/keys")).isEqualTo(1); // 두 번째는 캐시된 키로 검증
+    }
+
+    @Test
+    void appleRejectsOtherAudience() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        stub.respond("/apple/keys", 200, jwks("k1", (RSAPublicKey) keyPair.getPublic()));
+        AppleProfileClient apple = new AppleProfileClient(http, providerConfig);
+
+        assertThatThrownBy(() -> apple.fetchProfile(idToken(keyPair, "k1", "someone.else")).block())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(401));
+    }
+
+    @Test
+    void appleRejectsIdTokenWithoutKid() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        stub.respond("/apple/keys", 200, jwks("k1", (RSAPublicKey) keyPair.getPublic()));
+        AppleProfileClient apple = new AppleProfileClient(http, providerConfig);
+
+        assertThatThrownBy(() -> apple.fetchProfile(idToken(keyPair, null, "hello.hackathon")).block())
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode().value()).isEqualTo(401);
+                    assertThat(e.getReason()).isEqualTo("invalid apple token");
+                });
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String jwks(String kid, RSAPublicKey key) {
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        return "{\"keys\": [{\"kty\": \"RSA\", \"kid\": \"" + kid + "\", \"use\": \"sig\", \"alg\": \"RS256\""
+                + ", \"n\": \"" + b64.encodeToString(unsigned(key.getModulus().toByteArray())) + "\""
+                + ", \"e\": \"" + b64.encodeToString(unsigned(key.getPublicExponent().toByteArray())) + "\"}]}";
+    }
+
+    //BigInteger.toByteArray()는 부호 비트용 0x00이 앞에 붙을 수 있음
+    private static byte[] unsigned(byte[] bytes) {
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+
+    private static String idToken(KeyPair keyPair, String kid, String audience) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .setHeaderParam("kid", kid)
+                .setIssuer("https://appleid.apple.com")
+                .setAudience(audience)
+                .setSubject("apple-user")
+                .claim("email", "a@privaterelay.appleid.com")
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plusSeconds(600)))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+}
@@ -0,0 +1,165 @@
+package hello.hackathon.social;
+
+import hello.hackathon.config.SocialHttpConfig;
+import hello.hackathon.config.SocialProviderConfig;
+import hello.hackathon.config.SocialResilienceConfig;
+import hello.hackathon.domain.SocialProvider;
+import hello.hackathon.dto.SocialProfile;
+import hello.hackathon.service.AuthMetrics;
+import hello.hackathon.support.StubHttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//제공자 장애 상황 (지연/에러를 넣는 로컬 스텁 서버)에서 UpstreamGuard 동작 확인
+class UpstreamGuardTest {
+    static final String PROFILE = "{\"id\": 1, \"kakao_account\": {\"email\": \"a@kakao.com\"}}";
+
+    StubHttpServer stub;
+    SimpleMeterRegistry registry;
+    SocialResilienceConfig resilience;
+    SocialProviderConfig providerConfig;
+    SocialHttpClient http;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+        registry = new SimpleMeterRegistry();
+        resilience = new SocialResilienceConfig();
+        resilience.getRetry().setMinBackoffMillis(1);
+        resilience.getRetry().setMaxBackoffMillis(5);
+        resilience.getHedge().setEnabled(false);
+        providerConfig = new SocialProviderConfig();
+        providerConfig.getKakao().setUserinfoUri(stub.url("/kakao"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (http != null) {
+            http.close();
+        }
+        stub.close();
+    }
+
+    @Test
+    void retriesServerErrorOnce() {
+        stub.enqueue("/kakao", 503, "{}", 0).respond("/kakao", 200, PROFILE);
+
+        SocialProfile profile = kakao().fetchProfile("at").block();
+
+        assertThat(profile.id()).isEqualTo("1");
+        assertThat(stub.hits("/kakao")).isEqualTo(2);
+        assertThat(registry.get("auth.social.retry").tag("provider", "kakao").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRetryClientError() {
+        stub.respond("/kakao", 401, "{}");
+
+        assertThatThrownBy(() -> kakao().fetchProfile("at").block())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(401));
+        assertThat(stub.hits("/kakao")).isEqualTo(1);
+    }
+
+    @Test
+    void opensCircuitAndFailsFast() {
+        resilience.getRetry().setMaxRetries(0);
+        resilience.getCircuitBreaker().setSlidingWindowSize(4);
+        resilience.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        stub.respond("/kakao", 500, "{}");
+        KakaoProfileClient kakao = kakao();
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> kakao.fetchProfile("at").block()).isInstanceOf(ResponseStatusException.class);
+        }
+        assertThatThrownBy(() -> kakao.fetchProfile("at").block())
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode().value()).isEqualTo(503);
+                    assertThat(e.getReason()).isEqualTo("kakao api circuit open");
+                });
+        assertThat(stub.hits("/kakao")).isEqualTo(4); // 열린 뒤에는 호출하지 않음
+        assertThat(registry.get("auth.social.circuit.transition")
+                .tag("provider", "kakao").tag("from", "closed").tag("to", "open").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenCircuit() {
+        resilience.getCircuitBreaker().setSlidingWindowSize(4);
+        resilience.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        stub.respond("/kakao", 401, "{}");
+        UpstreamGuard guard = new UpstreamGuard(resilience, new AuthMetrics(registry));
+        KakaoProfileClient kakao = kakao(guard);
+
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> kakao.fetchProfile("at").block()).isInstanceOf(ResponseStatusException.class);
+        }
+        assertThat(guard.state(SocialProvider.KAKAO)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void hedgesSlowRequest() {
+        resilience.getHedge().setEnabled(true);
+        resilience.getHedge().setInitialDelayMillis(100);
+        stub.enqueue("/kakao", 200, PROFILE, 3000).respond("/kakao", 200, PROFILE);
+
+        long started = System.nanoTime();
+        SocialProfile profile = kakao().fetchProfile("at").block();
+
+        assertThat(profile.id()).isEqualTo("1");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(2000));
+        assertThat(stub.hits("/kakao")).isEqualTo(2);
+        assertThat(registry.get("auth.social.hedge").tag("result", "won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenBulkheadIsFull() {
+        resilience.getBulkhead().setMaxConcurrentCalls(1);
+        stub.respond("/kakao", 200, PROFILE, 1000);
+        KakaoProfileClient kakao = kakao();
+
+        Disposable first = kakao.fetchProfile("first").subscribe();
+        try {
+            await(() -> stub.hits("/kakao") == 1);
+            assertThatThrownBy(() -> kakao.fetchProfile("second").block())
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                        assertThat(e.getStatusCode().value()).isEqualTo(503);
+                        assertThat(e.getReason()).isEqualTo("kakao api busy");
+                    });
+        } finally {
+            first.dispose();
+        }
+    }
+
+    private KakaoProfileClient kakao() {
+        return kakao(new UpstreamGuard(resilience, new AuthMetrics(registry)));
+    }
+
+    private KakaoProfileClient kakao(UpstreamGuard guard) {
+        SocialHttpConfig httpConfig = new SocialHttpConfig();
+        httpConfig.setMetricsEnabled(false);
+        http = new SocialHttpClient(WebClient.builder(), httpConfig, guard, new AuthMetrics(registry));
+        return new KakaoProfileClient(http, providerConfig);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("condition not met in time");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
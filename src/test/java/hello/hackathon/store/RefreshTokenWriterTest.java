@@ -0,0 +1,157 @@
+package hello.hackathon.store;
+
+import hello.hackathon.config.RefreshTokenConfig;
+import hello.hackathon.domain.RefreshToken;
+import hello.hackathon.domain.UserEntity;
+import hello.hackathon.repository.RefreshTokenRepository;
+import hello.hackathon.repository.UserEntityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+//write-behind: 배치 저장 / 즉시 flush / 큐가 찼을 때 동기 저장 / 배치 실패 시 한 행씩 재시도
+class RefreshTokenWriterTest {
+    private static final UserEntity USER = UserEntity.builder().id(7L).build();
+
+    //트랜잭션 흉내 - save는 현재 트랜잭션에 모아 두고, 커밋될 때만 committed로 (롤백이면 버림)
+    private final Set<ByteBuffer> committed = ConcurrentHashMap.newKeySet();
+    private final List<byte[]> inTransaction = new ArrayList<>();
+    private final Set<ByteBuffer> poisoned = ConcurrentHashMap.newKeySet();
+    private RefreshTokenWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndOnlyTheBadTokenFails() {
+        writer = writer(100, 60_000, 10);
+        byte[] good1 = hash(1);
+        byte[] bad = hash(2);
+        byte[] good2 = hash(3);
+        poisoned.add(ByteBuffer.wrap(bad));
+        issue(good1);
+        issue(bad);
+        issue(good2);
+
+        //세 개가 한 배치로 나가서 실패 -> 한 행씩 다시, 저장 못 한 토큰을 기다리던 요청은 503
+        assertThatThrownBy(() -> writer.awaitWritten(bad))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(committed).containsExactlyInAnyOrder(ByteBuffer.wrap(good1), ByteBuffer.wrap(good2));
+        writer.awaitWritten(good1);
+        writer.awaitWritten(good2);
+        assertThat(writer.failedWriteCount()).isEqualTo(1);
+        assertThat(writer.queued()).isZero();
+    }
+
+    @Test
+    void fullQueueFallsBackToSynchronousWrite() {
+        writer = writer(1, 60_000, 1);
+        byte[] queued = hash(1);
+        byte[] overflow = hash(2);
+        issue(queued);
+        issue(overflow); // 자리가 없음 -> 호출 스레드에서 바로 저장
+
+        assertThat(committed).containsExactly(ByteBuffer.wrap(overflow));
+        assertThat(writer.syncFallbackCount()).isEqualTo(1);
+
+        writer.awaitWrittenForUser(USER.getId());
+        assertThat(committed).contains(ByteBuffer.wrap(queued));
+        assertThat(writer.queued()).isZero();
+    }
+
+    @Test
+    void workerFlushesInBackground() {
+        writer = writer(100, 5, 10);
+        writer.start();
+        byte[] token = hash(1);
+        issue(token);
+
+        writer.awaitWritten(token);
+
+        assertThat(committed).contains(ByteBuffer.wrap(token));
+    }
+
+    private void issue(byte[] hash) {
+        Instant now = Instant.now();
+        writer.issue(USER, UUID.randomUUID(), hash, now, now.plusSeconds(60));
+    }
+
+    private RefreshTokenWriter writer(int capacity, long flushIntervalMillis, long offerTimeoutMillis) {
+        RefreshTokenRepository refreshTokens = mock(RefreshTokenRepository.class);
+        willAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            if (poisoned.contains(ByteBuffer.wrap(token.getToken()))) {
+                throw new DataIntegrityViolationException("duplicate token_hash");
+            }
+            synchronized (inTransaction) {
+                inTransaction.add(token.getToken());
+            }
+            return token;
+        }).given(refreshTokens).save(any(RefreshToken.class));
+
+        RefreshTokenConfig config = new RefreshTokenConfig();
+        config.getWriteBehind().setMode(RefreshTokenConfig.WriteBehind.Mode.WRITE_BEHIND);
+        config.getWriteBehind().setQueueCapacity(capacity);
+        config.getWriteBehind().setBatchSize(10);
+        config.getWriteBehind().setFlushIntervalMillis(flushIntervalMillis);
+        config.getWriteBehind().setOfferTimeoutMillis(offerTimeoutMillis);
+        return new RefreshTokenWriter(refreshTokens, mock(UserEntityRepository.class), new FakeTransactionManager(), config);
+    }
+
+    private static byte[] hash(int seed) {
+        byte[] hash = new byte[32];
+        hash[0] = (byte) seed;
+        return hash;
+    }
+
+    private class FakeTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            synchronized (inTransaction) {
+                inTransaction.clear();
+            }
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            synchronized (inTransaction) {
+                inTransaction.forEach(hash -> committed.add(ByteBuffer.wrap(hash)));
+                inTransaction.clear();
+            }
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            synchronized (inTransaction) {
+                inTransaction.clear();
+            }
+        }
+    }
+}
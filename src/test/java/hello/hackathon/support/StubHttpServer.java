@@ -0,0 +1,91 @@
+package hello.hackathon.support;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//외부 API 대신 띄우는 로컬 HTTP 서버 (JDK 내장 HttpServer)
+//경로별로 상태 코드 + JSON 본문(+ 지연)을 정해 두고, 받은 Authorization 헤더와 호출 수를 기록한다.
+//enqueue로 넣은 응답은 기본 응답보다 먼저, 한 번씩 쓰인다. (앞 요청만 느리게/실패하게)
+public class StubHttpServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(); // 지연 응답끼리 서로 막지 않도록
+    private final Map<String, Response> responses = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Response>> queued = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private volatile String lastAuthorization;
+
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            hits.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+            lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+            Response response = queued.getOrDefault(path, new ConcurrentLinkedQueue<>()).poll();
+            if (response == null) {
+                response = responses.getOrDefault(path, new Response(404, "{}", 0));
+            }
+            if (response.delayMillis() > 0) {
+                try {
+                    Thread.sleep(response.delayMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public StubHttpServer respond(String path, int status, String body) {
+        return respond(path, status, body, 0);
+    }
+
+    public StubHttpServer respond(String path, int status, String body, long delayMillis) {
+        responses.put(path, new Response(status, body, delayMillis));
+        return this;
+    }
+
+    public StubHttpServer enqueue(String path, int status, String body, long delayMillis) {
+        queued.computeIfAbsent(path, k -> new ConcurrentLinkedQueue<>()).add(new Response(status, body, delayMillis));
+        return this;
+    }
+
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    public int hits(String path) {
+        AtomicInteger count = hits.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    public String lastAuthorization() {
+        return lastAuthorization;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private record Response(int status, String body, long delayMillis) {
+    }
+}
@@ -0,0 +1,156 @@
+package hello.hackathon.web;
+
+import hello.hackathon.config.RateLimitConfig;
+import hello.hackathon.service.TokenHasher;
+import hello.hackathon.service.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RateLimitFilterTest {
+
+    @Test
+    void rejectsAfterBurstWithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(rule("/auth/**", rate(2, 1), RateLimitConfig.Rule.Subject.NONE, null));
+
+        assertThat(send(filter, post("/auth/kakao/login", "1.1.1.1", "{}")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, post("/auth/kakao/login", "1.1.1.1", "{}")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, post("/auth/kakao/login", "1.1.1.1", "{}"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        //다른 IP는 별도 버킷
+        assertThat(send(filter, post("/auth/kakao/login", "2.2.2.2", "{}")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void limitsPerRefreshTokenAndKeepsBodyReadable() throws Exception {
+        RateLimitFilter filter = filter(rule("/auth/token/refresh", rate(100, 100),
+                RateLimitConfig.Rule.Subject.REFRESH_TOKEN, rate(1, 0.1)));
+        String body = "{\"refreshToken\":\"rt-1\"}";
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(post("/auth/token/refresh", "1.1.1.1", body), new MockHttpServletResponse(), chain);
+
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+        assertThat(send(filter, post("/auth/token/refresh", "3.3.3.3", body)).getStatus()).isEqualTo(429);
+        assertThat(send(filter, post("/auth/token/refresh", "1.1.1.1", "{\"refreshToken\":\"rt-2\"}")).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void chunkedBodiesAreKeyedAndOversizedBodiesShareOneBucket() throws Exception {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setMaxBodyBytes(64);
+        config.getRules().add(rule("/auth/token/refresh", rate(100, 100),
+                RateLimitConfig.Rule.Subject.REFRESH_TOKEN, rate(1, 0.1)));
+        RateLimitFilter filter = new RateLimitFilter(config, mock(TokenService.class), new TokenHasher());
+
+        //Content-Length 없이 (chunked) 와도 본문에서 토큰을 뽑아 같은 버킷으로
+        assertThat(send(filter, chunked("{\"refreshToken\":\"rt-1\"}")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, chunked("{\"refreshToken\":\"rt-1\"}")).getStatus()).isEqualTo(429);
+
+        //max보다 큰 본문은 토큰을 못 뽑지만 제한을 건너뛰지 않고, 컨트롤러에는 본문 전체가 그대로 간다.
+        String large = "{\"refreshToken\":\"" + "x".repeat(100) + "\"}";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(chunked(large), new MockHttpServletResponse(), chain);
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(large);
+        assertThat(send(filter, chunked(large.replace('x', 'y'))).getStatus()).isEqualTo(429);
+        assertThat(send(filter, post("/auth/token/refresh", "1.1.1.1", large.replace('x', 'z'))).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void spoofedForwardedForEntriesDoNotGetFreshBuckets() throws Exception {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setTrustForwardedFor(true);
+        config.getRules().add(rule("/auth/**", rate(1, 0.1), RateLimitConfig.Rule.Subject.NONE, null));
+        RateLimitFilter filter = new RateLimitFilter(config, mock(TokenService.class), new TokenHasher());
+
+        //클라이언트가 앞쪽 값을 매번 바꿔도 프록시가 붙인 마지막 값(9.9.9.9)으로 묶인다.
+        assertThat(send(filter, forwardedFor("1.1.1.1, 9.9.9.9")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, forwardedFor("2.2.2.2, 9.9.9.9")).getStatus()).isEqualTo(429);
+        assertThat(send(filter, forwardedFor("9.9.9.9")).getStatus()).isEqualTo(429);
+        assertThat(send(filter, forwardedFor("1.1.1.1, 8.8.8.8")).getStatus()).isEqualTo(200);
+
+        //프록시가 두 단계면 오른쪽에서 두 번째
+        config.setTrustedProxyHops(2);
+        assertThat(send(filter, forwardedFor("3.3.3.3, 7.7.7.7, 10.0.0.1")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, forwardedFor("4.4.4.4, 7.7.7.7, 10.0.0.2")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void ignoresOtherPaths() throws Exception {
+        RateLimitFilter filter = filter(rule("/**", rate(1, 0.1), RateLimitConfig.Rule.Subject.NONE, null));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(filter, post("/.well-known/jwks.json", "1.1.1.1", "")).getStatus()).isEqualTo(200);
+        }
+    }
+
+    private static RateLimitFilter filter(RateLimitConfig.Rule rule) {
+        RateLimitConfig config = new RateLimitConfig();
+        config.getRules().add(rule);
+        return new RateLimitFilter(config, mock(TokenService.class), new TokenHasher());
+    }
+
+    private static RateLimitConfig.Rule rule(String path, RateLimitConfig.Rate ip,
+                                             RateLimitConfig.Rule.Subject subject, RateLimitConfig.Rate subjectRate) {
+        RateLimitConfig.Rule rule = new RateLimitConfig.Rule();
+        rule.setPath(path);
+        rule.setIp(ip);
+        rule.setSubject(subject);
+        rule.setSubjectRate(subjectRate);
+        return rule;
+    }
+
+    private static RateLimitConfig.Rate rate(int burst, double perSecond) {
+        RateLimitConfig.Rate rate = new RateLimitConfig.Rate();
+        rate.setBurst(burst);
+        rate.setPerSecond(perSecond);
+        return rate;
+    }
+
+    private static MockHttpServletRequest post(String uri, String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest chunked(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/token/refresh") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+        };
+        request.setRemoteAddr("1.1.1.1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest forwardedFor(String header) {
+        MockHttpServletRequest request = post("/auth/kakao/login", "10.0.0.1", "{}");
+        request.addHeader("X-Forwarded-For", header);
+        return request;
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}